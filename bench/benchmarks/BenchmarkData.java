@@ -0,0 +1,124 @@
+package benchmarks;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import tools.ZipfSampler;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+
+// Deterministic synthetic inputs for the benchmarks. Movie IDs use
+// MOVIE_ID_DIGITS digits so catalogs can grow past 1000 titles. Genres and
+// liked movies are drawn with the dataset generator's ZipfSampler: a skew of
+// 0 is uniform, around 1 gives the few hot genres and titles real catalogs
+// have.
+public class BenchmarkData {
+    public static final int MOVIE_ID_DIGITS = 7;
+
+    private static final String[] WORDS = {
+            "The", "Dark", "Knight", "Return", "Of", "King", "Lost", "Ark", "Silent",
+            "Night", "Great", "Escape", "Star", "Wars", "Blade", "Runner", "Iron", "Giant"
+    };
+    private static final String[] NAMES = {
+            "John Smith", "Alice Johnson", "Bob Williams", "Mona Adel", "Omar Khaled"
+    };
+
+    public static List<Movie> movies(int count, int genreVocabulary, int genresPerMovie, long seed) {
+        return movies(count, genreVocabulary, genresPerMovie, 0, seed);
+    }
+
+    public static List<Movie> movies(int count, int genreVocabulary, int genresPerMovie,
+                                     double genreSkew, long seed) {
+        Random random = new Random(seed);
+        ZipfSampler genrePopularity = new ZipfSampler(genreVocabulary, genreSkew);
+        List<Movie> movies = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            int words = 1 + random.nextInt(4);
+            StringBuilder title = new StringBuilder();
+            StringBuilder id = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                if (w > 0) {
+                    title.append(' ');
+                }
+                title.append(word);
+                id.append(word.charAt(0));
+            }
+            id.append(String.format("%0" + MOVIE_ID_DIGITS + "d", i));
+
+            List<String> genres = new ArrayList<>(genresPerMovie);
+            for (int g = 0; g < genresPerMovie; g++) {
+                genres.add("genre" + genrePopularity.sample(random));
+            }
+
+            movies.add(new Movie(title.toString(), id.toString(), genres));
+        }
+
+        return movies;
+    }
+
+    public static List<User> users(int count, List<Movie> movies, int likedPerUser, long seed) {
+        return users(count, movies, likedPerUser, 0, seed);
+    }
+
+    public static List<User> users(int count, List<Movie> movies, int likedPerUser,
+                                   double movieSkew, long seed) {
+        Random random = new Random(seed);
+        ZipfSampler moviePopularity = new ZipfSampler(movies.size(), movieSkew);
+        List<User> users = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            List<String> liked = new ArrayList<>(likedPerUser);
+            for (int l = 0; l < likedPerUser; l++) {
+                liked.add(movies.get(moviePopularity.sample(random)).getId());
+            }
+            users.add(new User(NAMES[i % NAMES.length], String.format("%09d", i), liked));
+        }
+
+        return users;
+    }
+
+    public static List<UserRecommendation> recommendations(List<User> users, List<Movie> movies,
+                                                           int titlesPerUser, long seed) {
+        Random random = new Random(seed);
+        List<UserRecommendation> recommendations = new ArrayList<>(users.size());
+
+        for (User user : users) {
+            List<String> titles = new ArrayList<>(titlesPerUser);
+            for (int t = 0; t < titlesPerUser; t++) {
+                titles.add(movies.get(random.nextInt(movies.size())).getTitle());
+            }
+            recommendations.add(new UserRecommendation(user.getName(), user.getId(), titles));
+        }
+
+        return recommendations;
+    }
+
+    public static void writeMovies(Path file, List<Movie> movies) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Movie movie : movies) {
+                writer.write(movie.getTitle() + "," + movie.getId());
+                writer.newLine();
+                writer.write(String.join(",", movie.getGenres()));
+                writer.newLine();
+            }
+        }
+    }
+
+    public static void writeUsers(Path file, List<User> users) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (User user : users) {
+                writer.write(user.getName() + "," + user.getId());
+                writer.newLine();
+                writer.write(String.join(",", user.getLikedMovieIds()));
+                writer.newLine();
+            }
+        }
+    }
+}
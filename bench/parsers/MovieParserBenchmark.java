@@ -0,0 +1,64 @@
+package parsers;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import validators.MovieValidator;
+import exceptions.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieParserBenchmark {
+
+    @Param({"1000", "100000"})
+    public int movies;
+
+    @Param({"1", "3", "8"})
+    public int genresPerMovie;
+
+    private Path moviesFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        moviesFile = Files.createTempFile("bench_movies", ".txt");
+        BenchmarkData.writeMovies(moviesFile,
+                BenchmarkData.movies(movies, 50, genresPerMovie, 42));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(moviesFile);
+    }
+
+    @Benchmark
+    public List<Movie> parseMovies() throws ValidationException, IOException {
+        MovieValidator validator = new MovieValidator(BenchmarkData.MOVIE_ID_DIGITS, false);
+        return new MovieParser(validator).parseMovies(moviesFile.toString());
+    }
+
+    @Benchmark
+    public List<Movie> parseMoviesMapped() throws ValidationException, IOException {
+        MovieValidator validator = new MovieValidator(BenchmarkData.MOVIE_ID_DIGITS, false);
+        return new MappedMovieParser(validator).parseMovies(moviesFile.toString());
+    }
+}
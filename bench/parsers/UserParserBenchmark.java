@@ -0,0 +1,65 @@
+package parsers;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import models.User;
+import exceptions.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserParserBenchmark {
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    @Param({"1", "10"})
+    public int likedPerUser;
+
+    @Param({"4"})
+    public int parallelism;
+
+    private Path usersFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Movie> movies = BenchmarkData.movies(1000, 50, 3, 42);
+        usersFile = Files.createTempFile("bench_users", ".txt");
+        BenchmarkData.writeUsers(usersFile, BenchmarkData.users(users, movies, likedPerUser, 7));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(usersFile);
+    }
+
+    @Benchmark
+    public List<User> parseUsers() throws ValidationException, IOException {
+        return new UserParser().parseUsers(usersFile.toString());
+    }
+
+    @Benchmark
+    public List<User> parseUsersParallel() throws ValidationException, IOException {
+        return new ParallelUserParser(parallelism).parseUsers(usersFile.toString());
+    }
+}
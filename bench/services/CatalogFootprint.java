@@ -0,0 +1,51 @@
+package services;
+
+import benchmarks.BenchmarkData;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Supplier;
+
+// Retained heap of the same catalog as List<Movie> and as CompactCatalog.
+// Not a JMH benchmark: footprint is measured once, as used heap after a full
+// collection with only the catalog reachable, minus the baseline.
+//
+//   java -cp "bin:bench-bin:lib/*" services.CatalogFootprint [movies] [genresPerMovie]
+public class CatalogFootprint {
+
+    public static void main(String[] args) {
+        int movies = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int genresPerMovie = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        // Same seed, so both sides hold the same catalog
+        long listBytes = retained(() -> BenchmarkData.movies(movies, 50, genresPerMovie, 42));
+        long[] estimate = new long[1];
+        long compactBytes = retained(() -> {
+            CompactCatalog catalog = new CompactCatalog(BenchmarkData.movies(movies, 50, genresPerMovie, 42));
+            estimate[0] = catalog.footprintBytes();
+            return catalog;
+        });
+
+        System.out.printf("movies=%d genresPerMovie=%d%n", movies, genresPerMovie);
+        System.out.printf("List<Movie>     %,15d bytes  %6.1f per movie%n", listBytes, (double) listBytes / movies);
+        System.out.printf("CompactCatalog  %,15d bytes  %6.1f per movie  (footprintBytes %,d)%n",
+                compactBytes, (double) compactBytes / movies, estimate[0]);
+        System.out.printf("ratio           %15.2fx%n", (double) listBytes / compactBytes);
+    }
+
+    private static long retained(Supplier<Object> build) {
+        long baseline = usedAfterGc();
+        Object kept = build.get();
+        long used = usedAfterGc() - baseline;
+        Reference.reachabilityFence(kept);
+        return used;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
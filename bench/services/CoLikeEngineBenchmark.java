@@ -0,0 +1,68 @@
+package services;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoLikeEngineBenchmark {
+
+    @Param({"10000"})
+    public int movies;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"10"})
+    public int likedPerUser;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    // Zipf skew of genre and movie popularity; 0 is uniform
+    @Param({"0", "1.0"})
+    public double skew;
+
+    private List<Movie> catalog;
+    private List<User> likers;
+    private User[] probes;
+    private CoLikeEngine engine;
+    private int nextUser;
+
+    @Setup
+    public void setUp() {
+        catalog = BenchmarkData.movies(movies, 50, 3, skew, 42);
+        likers = BenchmarkData.users(users, catalog, likedPerUser, skew, 7);
+        probes = BenchmarkData.users(1024, catalog, 5, skew, 11).toArray(new User[0]);
+        engine = new CoLikeEngine(catalog, likers, parallelism);
+    }
+
+    @Benchmark
+    public CoLikeEngine build() {
+        return new CoLikeEngine(catalog, likers, parallelism);
+    }
+
+    @Benchmark
+    public UserRecommendation generateTopK() {
+        return engine.generateTopK(probes[nextUser++ & (probes.length - 1)], 10);
+    }
+}
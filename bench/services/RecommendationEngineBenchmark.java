@@ -0,0 +1,76 @@
+package services;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationEngineBenchmark {
+
+    @Param({"1000", "100000"})
+    public int movies;
+
+    @Param({"1", "3", "8"})
+    public int genresPerMovie;
+
+    @Param({"50"})
+    public int genreVocabulary;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    // 0 disables the candidate cache
+    @Param({"0", "1024"})
+    public int candidateCache;
+
+    // Zipf skew of genre and movie popularity; 0 is uniform
+    @Param({"0", "1.0"})
+    public double skew;
+
+    private List<Movie> catalog;
+    private User[] users;
+    private RecommendationEngine engine;
+    private int nextUser;
+
+    @Setup
+    public void setUp() {
+        catalog = BenchmarkData.movies(movies, genreVocabulary, genresPerMovie, skew, 42);
+        users = BenchmarkData.users(1024, catalog, 5, skew, 7).toArray(new User[0]);
+        engine = new RecommendationEngine(catalog, indexed, PipelineMetrics.DISABLED, candidateCache);
+    }
+
+    @Benchmark
+    public RecommendationEngine build() {
+        return new RecommendationEngine(catalog, indexed);
+    }
+
+    @Benchmark
+    public UserRecommendation generateRecommendations() {
+        return engine.generateRecommendations(users[nextUser++ & (users.length - 1)]);
+    }
+
+    @Benchmark
+    public UserRecommendation generateTopK() {
+        return engine.generateTopK(users[nextUser++ & (users.length - 1)], 10);
+    }
+}
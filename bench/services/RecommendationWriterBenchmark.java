@@ -0,0 +1,71 @@
+package services;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import models.UserRecommendation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationWriterBenchmark {
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    @Param({"10", "100"})
+    public int titlesPerUser;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    @Param({"0", "4"})
+    public int gzipThreads;
+
+    // Ignored with gzipThreads, which the channel sink cannot write
+    @Param({"false", "true"})
+    public boolean channelOutput;
+
+    private List<UserRecommendation> recommendations;
+    private Path outputFile;
+    private RecommendationWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Movie> movies = BenchmarkData.movies(1000, 50, 3, 42);
+        recommendations = BenchmarkData.recommendations(
+                BenchmarkData.users(users, movies, 1, 7), movies, titlesPerUser, 11);
+        outputFile = Files.createTempFile("bench_recommendations", ".txt");
+        writer = new RecommendationWriter(shards, false, gzipThreads, false, false,
+                channelOutput && gzipThreads == 0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Benchmark
+    public void writeRecommendations() throws IOException {
+        writer.writeRecommendations(outputFile.toString(), recommendations);
+    }
+}
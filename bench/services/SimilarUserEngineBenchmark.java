@@ -0,0 +1,77 @@
+package services;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// users grows 4x per step: a quadratic all-pairs build would take 16x longer
+// each step, while the LSH build should stay close to 4x
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarUserEngineBenchmark {
+
+    @Param({"10000"})
+    public int movies;
+
+    @Param({"25000", "100000", "400000"})
+    public int users;
+
+    @Param({"10"})
+    public int likedPerUser;
+
+    @Param({"16"})
+    public int bands;
+
+    @Param({"4"})
+    public int rows;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    // Zipf skew of genre and movie popularity; 0 is uniform
+    @Param({"0", "1.0"})
+    public double skew;
+
+    private List<Movie> catalog;
+    private List<User> likers;
+    private User[] probes;
+    private SimilarUserEngine engine;
+    private int nextUser;
+
+    @Setup
+    public void setUp() {
+        catalog = BenchmarkData.movies(movies, 50, 3, skew, 42);
+        likers = BenchmarkData.users(users, catalog, likedPerUser, skew, 7);
+        probes = likers.subList(0, 1024).toArray(new User[0]);
+        engine = build();
+    }
+
+    @Benchmark
+    public SimilarUserEngine build() {
+        return new SimilarUserEngine(catalog, likers, bands, rows,
+                SimilarUserEngine.DEFAULT_NEIGHBORS, parallelism);
+    }
+
+    @Benchmark
+    public UserRecommendation generateTopK() {
+        return engine.generateTopK(probes[nextUser++ & (probes.length - 1)], 10);
+    }
+}
@@ -0,0 +1,99 @@
+package validators;
+
+import exceptions.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.concurrent.TimeUnit;
+
+// Compares validateTitle + validateMovieId against the single-pass validateMovie.
+// Each invocation validates a whole catalog with a fresh validator, since the
+// numeric suffixes may only be claimed once per validator. With -prof gc,
+// singlePassReusedCharSequence should allocate nothing per movie beyond the
+// validator's own tables, with uniqueFullId too.
+// Titles cycle through few words, so uniqueFullId sees a handful of prefixes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieValidatorBenchmark {
+    private static final String[] WORDS = {
+            "The", "Dark", "Knight", "Return", "Of", "King", "Lost", "Ark", "Silent", "Night"
+    };
+
+    @Param({"100", "1000"})
+    public int movies;
+
+    @Param({"1", "4"})
+    public int wordsPerTitle;
+
+    @Param({"false", "true"})
+    public boolean uniqueFullId;
+
+    private String[] titles;
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        titles = new String[movies];
+        ids = new String[movies];
+
+        for (int i = 0; i < movies; i++) {
+            StringBuilder title = new StringBuilder();
+            StringBuilder id = new StringBuilder();
+            for (int w = 0; w < wordsPerTitle; w++) {
+                String word = WORDS[(i + w) % WORDS.length];
+                if (w > 0) {
+                    title.append(' ');
+                }
+                title.append(word);
+                id.append(word.charAt(0));
+            }
+            titles[i] = title.toString();
+            ids[i] = id.append(String.format("%03d", i)).toString();
+        }
+    }
+
+    @Benchmark
+    public MovieValidator separateChecks() throws ValidationException {
+        MovieValidator validator = new MovieValidator(MovieValidator.DEFAULT_SUFFIX_DIGITS, uniqueFullId);
+        for (int i = 0; i < movies; i++) {
+            validator.validateTitle(titles[i]);
+            validator.validateMovieId(titles[i], ids[i]);
+        }
+        return validator;
+    }
+
+    @Benchmark
+    public MovieValidator singlePass() throws ValidationException {
+        MovieValidator validator = new MovieValidator(MovieValidator.DEFAULT_SUFFIX_DIGITS, uniqueFullId);
+        for (int i = 0; i < movies; i++) {
+            validator.validateMovie(titles[i], ids[i]);
+        }
+        return validator;
+    }
+
+    @Benchmark
+    public void singlePassReusedCharSequence(Blackhole blackhole) throws ValidationException {
+        MovieValidator validator = new MovieValidator(MovieValidator.DEFAULT_SUFFIX_DIGITS, uniqueFullId);
+        StringBuilder title = new StringBuilder();
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < movies; i++) {
+            title.setLength(0);
+            id.setLength(0);
+            validator.validateMovie(title.append(titles[i]), id.append(ids[i]));
+        }
+        blackhole.consume(validator);
+    }
+}
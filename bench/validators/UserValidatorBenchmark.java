@@ -0,0 +1,85 @@
+package validators;
+
+import benchmarks.BenchmarkData;
+import models.Movie;
+import models.User;
+import exceptions.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Per-record cost of the user checks UserReader runs: each invocation
+// validates RECORDS users, and JMH divides the score by that count
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserValidatorBenchmark {
+    private static final int RECORDS = 10000;
+
+    @Param({"1000", "100000"})
+    public int distinctIds;
+
+    private String[] names;
+    private String[] ids;
+    private UserValidator validator;
+
+    @Setup
+    public void setUp() {
+        List<Movie> movies = BenchmarkData.movies(10, 5, 1, 42);
+        List<User> users = BenchmarkData.users(distinctIds, movies, 1, 7);
+
+        names = new String[RECORDS];
+        ids = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            User user = users.get(i % users.size());
+            names[i] = user.getName();
+            ids[i] = user.getId();
+        }
+        validator = new UserValidator();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void validateNameAndId() throws ValidationException {
+        for (int i = 0; i < RECORDS; i++) {
+            validator.validateUserName(names[i]);
+            validator.validateUserId(ids[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public Set<String> uniqueIdsHashSet() {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < RECORDS; i++) {
+            seen.add(ids[i]);
+        }
+        return seen;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public Set<String> uniqueIdsPacked() {
+        Set<String> seen = new UserIdSet();
+        for (int i = 0; i < RECORDS; i++) {
+            seen.add(ids[i]);
+        }
+        return seen;
+    }
+}
@@ -3,12 +3,33 @@ package App;
 import models.Movie;
 import models.User;
 import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import metrics.Stage;
+import parsers.MappedMovieParser;
 import parsers.MovieParser;
+import parsers.ParallelUserParser;
 import parsers.UserParser;
+import parsers.UserReader;
+import services.CatalogSnapshot;
+import services.CoLikeEngine;
+import services.CompactCatalog;
+import services.CompactEngine;
 import services.RecommendationEngine;
+import services.Recommender;
+import services.SimilarUserEngine;
+import services.RecommendationSink;
 import services.RecommendationWriter;
+import server.CatalogWatcher;
+import server.RecommendationServer;
+import validators.MovieValidator;
+import validators.TimedMovieValidator;
 import exceptions.ValidationException;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.JMException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Scanner;
@@ -17,38 +38,99 @@ import java.util.Scanner;
 public class MovieRecommendationApp {
 
     public static void main(String[] args) {
+        RunOptions options;
+        try {
+            options = RunOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
     	
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter the movies file path: ");
         String moviesFile = scanner.nextLine().trim();
+
+        if (options.getServePort() > 0) {
+            scanner.close();
+            serve(moviesFile, options);
+            return;
+        }
                                                            // edit to make user enter the name of wanted in execution time 
         System.out.print("Enter the users file path: "); 
         String usersFile = scanner.nextLine().trim();
         scanner.close();
         
-        String outputFile = "recommendations.txt";
+        String outputFile = options.isGzip() ? "recommendations.txt.gz"
+                : options.isBinaryOutput() ? "recommendations.bin"
+                : "recommendations.txt";
 
-        RecommendationWriter writer = new RecommendationWriter();
+        RecommendationWriter writer = new RecommendationWriter(options.getOutputShards(), options.isKeepParts(),
+                options.isGzip() ? options.getParallelism() : 0,
+                options.isBinaryOutput(), options.isIndexed(), options.isChannelOutput());
+        PipelineMetrics metrics = options.isMetrics() ? new PipelineMetrics() : PipelineMetrics.DISABLED;
+        if (metrics.isEnabled()) {
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                System.err.println("Metrics MBean not registered: " + e.getMessage());
+            }
+        }
 
         try {
-            MovieParser movieParser = new MovieParser();
-            List<Movie> movies = movieParser.parseMovies(moviesFile);
+            MovieValidator movieValidator = metrics.isEnabled()
+                    ? new TimedMovieValidator(options.getMovieIdDigits(), options.isUniqueFullMovieId(), metrics)
+                    : new MovieValidator(options.getMovieIdDigits(), options.isUniqueFullMovieId());
+            // Parsing calls the validator on this thread, and that time is
+            // already in MOVIE_VALIDATION, so it is left out of MOVIE_PARSE
+            long validated = metrics.getStageNanos(Stage.MOVIE_VALIDATION);
+            long start = metrics.startTimer();
+            List<Movie> movies = null;
+            CompactCatalog catalog = null;
+            if (options.isSnapshot()) {
+                catalog = loadCatalog(moviesFile, movieValidator, options);
+                metrics.recordStage(Stage.MOVIE_PARSE,
+                        start + metrics.getStageNanos(Stage.MOVIE_VALIDATION) - validated, catalog.movieCount());
+            } else {
+                movies = options.isMappedMovies()
+                        ? new MappedMovieParser(movieValidator).parseMovies(moviesFile)
+                        : new MovieParser(movieValidator).parseMovies(moviesFile);
+                metrics.recordStage(Stage.MOVIE_PARSE,
+                        start + metrics.getStageNanos(Stage.MOVIE_VALIDATION) - validated, movies.size());
+            }
 
-            UserParser userParser = new UserParser();
-            List<User> users = userParser.parseUsers(usersFile);
+            if (options.isStreaming()) {
+                Recommender engine = options.isCompact()
+                        ? buildCompactEngine(movies, catalog, metrics)
+                        : buildEngine(movies, metrics, options);
+                streamRecommendations(engine, usersFile, outputFile, writer, options, metrics);
+            } else {
+                start = metrics.startTimer();
+                List<User> users = options.getParallelism() > 1
+                        ? new ParallelUserParser(options.getParallelism()).parseUsers(usersFile)
+                        : new UserParser().parseUsers(usersFile);
+                metrics.recordStage(Stage.USER_PARSE, start, users.size());
 
-            RecommendationEngine engine = new RecommendationEngine(movies);
-            List<UserRecommendation> recommendations = new ArrayList<>();
+                Recommender engine = options.isCoLike()
+                        ? buildCoLikeEngine(movies, users, metrics, options)
+                        : options.isSimilarUsers()
+                        ? buildSimilarUserEngine(movies, users, metrics, options)
+                        : options.isCompact()
+                        ? buildCompactEngine(movies, catalog, metrics)
+                        : buildEngine(movies, metrics, options);
+                List<UserRecommendation> recommendations = recommend(engine, users, options);
 
-            for (User user : users) {
-                UserRecommendation rec = engine.generateRecommendations(user);
-                recommendations.add(rec);
+                start = metrics.startTimer();
+                writer.writeRecommendations(outputFile, recommendations);
+                metrics.recordStage(Stage.WRITE, start, recommendations.size());
             }
 
-            writer.writeRecommendations(outputFile, recommendations);
-
             System.out.println("Recommendations generated successfully!");
 
+            if (metrics.isEnabled()) {
+                metrics.addBytesWritten(new File(outputFile).length());
+                System.out.print(metrics.report());
+            }
+
         } catch (ValidationException e) {
             try {
                 writer.writeError(outputFile, e.getMessage());
@@ -60,4 +142,163 @@ public class MovieRecommendationApp {
             System.err.println("File error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Keeps answering requests until the process is stopped. Saving a new
+    // movies file swaps in a freshly built engine without interrupting requests.
+    private static void serve(String moviesFile, RunOptions options) {
+        RecommendationServer.enableNoDelay();
+        try {
+            CatalogWatcher catalog = new CatalogWatcher(Paths.get(moviesFile),
+                    () -> new RecommendationEngine(parseMovies(moviesFile, options), options.isBitsetIndex(),
+                            PipelineMetrics.DISABLED, options.getCandidateCacheSize()));
+            catalog.start();
+
+            RecommendationServer server = new RecommendationServer(catalog,
+                    options.getServePort(), options.getServerThreads(), options.getTopK());
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                try {
+                    catalog.close();
+                } catch (IOException e) {
+                    // exiting anyway
+                }
+            }));
+
+            System.out.println("Serving recommendations for " + moviesFile + " on port "
+                    + server.getPort());
+        } catch (ValidationException e) {
+            System.out.println("Validation error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("File error: " + e.getMessage());
+        }
+    }
+
+    // A fresh validator each time, since it remembers the IDs it has accepted
+    private static List<Movie> parseMovies(String moviesFile, RunOptions options)
+            throws ValidationException, IOException {
+        MovieValidator movieValidator = new MovieValidator(
+                options.getMovieIdDigits(), options.isUniqueFullMovieId());
+        return options.isMappedMovies()
+                ? new MappedMovieParser(movieValidator).parseMovies(moviesFile)
+                : new MovieParser(movieValidator).parseMovies(moviesFile);
+    }
+
+    private static RecommendationEngine buildEngine(List<Movie> movies, PipelineMetrics metrics,
+                                                    RunOptions options) {
+        long start = metrics.startTimer();
+        RecommendationEngine engine = new RecommendationEngine(movies, options.isBitsetIndex(), metrics,
+                options.getCandidateCacheSize());
+        metrics.recordStage(Stage.ENGINE_BUILD, start, movies.size());
+        return engine;
+    }
+
+    // Uses the catalog when it was already loaded from a snapshot
+    private static CompactEngine buildCompactEngine(List<Movie> movies, CompactCatalog catalog,
+                                                    PipelineMetrics metrics) {
+        long start = metrics.startTimer();
+        CompactEngine engine = new CompactEngine(catalog != null ? catalog : new CompactCatalog(movies), metrics);
+        metrics.recordStage(Stage.ENGINE_BUILD, start, engine.getCatalog().movieCount());
+        return engine;
+    }
+
+    // Opens the snapshot next to the movies file when it is newer than the
+    // file and was written from this version of it with the same validation
+    // settings. Otherwise the file is parsed and validated as usual and the
+    // snapshot is rewritten for the next run.
+    private static CompactCatalog loadCatalog(String moviesFile, MovieValidator movieValidator,
+                                              RunOptions options) throws ValidationException, IOException {
+        Path source = Paths.get(moviesFile);
+        Path snapshot = Paths.get(moviesFile + CatalogSnapshot.EXTENSION);
+        long stamp = CatalogSnapshot.stampOf(source, "id-digits=" + options.getMovieIdDigits()
+                + ",unique-full-id=" + options.isUniqueFullMovieId());
+
+        if (Files.exists(snapshot)
+                && Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(source)) >= 0) {
+            try {
+                CompactCatalog catalog = CatalogSnapshot.open(snapshot, stamp);
+                if (catalog != null) {
+                    return catalog;
+                }
+            } catch (IOException e) {
+                System.err.println("Rebuilding catalog snapshot: " + e.getMessage());
+            }
+        }
+
+        List<Movie> movies = options.isMappedMovies()
+                ? new MappedMovieParser(movieValidator).parseMovies(moviesFile)
+                : new MovieParser(movieValidator).parseMovies(moviesFile);
+        CompactCatalog catalog = new CompactCatalog(movies);
+        try {
+            CatalogSnapshot.write(catalog, snapshot, stamp);
+        } catch (IOException e) {
+            System.err.println("Catalog snapshot not written: " + e.getMessage());
+        }
+        return catalog;
+    }
+
+    private static CoLikeEngine buildCoLikeEngine(List<Movie> movies, List<User> users,
+                                                  PipelineMetrics metrics, RunOptions options) {
+        long start = metrics.startTimer();
+        CoLikeEngine engine = new CoLikeEngine(movies, users, options.getParallelism(), metrics);
+        metrics.recordStage(Stage.ENGINE_BUILD, start, movies.size());
+        return engine;
+    }
+
+    private static SimilarUserEngine buildSimilarUserEngine(List<Movie> movies, List<User> users,
+                                                            PipelineMetrics metrics, RunOptions options) {
+        long start = metrics.startTimer();
+        SimilarUserEngine engine = new SimilarUserEngine(movies, users, options.getLshBands(),
+                options.getLshRows(), SimilarUserEngine.DEFAULT_NEIGHBORS, options.getParallelism(), metrics);
+        metrics.recordStage(Stage.ENGINE_BUILD, start, users.size());
+        return engine;
+    }
+
+    private static final int STREAM_BATCH_SIZE = 1024;
+
+    // Holds at most one batch of users in memory and writes each batch as soon
+    // as it is recommended, so output starts before the users file is finished
+    private static void streamRecommendations(Recommender engine, String usersFile,
+                                              String outputFile, RecommendationWriter writer,
+                                              RunOptions options, PipelineMetrics metrics)
+            throws ValidationException, IOException {
+        UserParser userParser = new UserParser();
+
+        try (UserReader users = userParser.openUsers(usersFile);
+             RecommendationSink sink = writer.openRecommendations(outputFile)) {
+            List<User> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+
+            boolean more = true;
+            while (more) {
+                long start = metrics.startTimer();
+                User user;
+                while (batch.size() < STREAM_BATCH_SIZE && (user = users.readUser()) != null) {
+                    batch.add(user);
+                }
+                more = batch.size() == STREAM_BATCH_SIZE;
+                metrics.recordStage(Stage.USER_PARSE, start, batch.size());
+
+                writeBatch(engine, batch, sink, options, metrics);
+            }
+        }
+    }
+
+    private static void writeBatch(Recommender engine, List<User> batch, RecommendationSink sink,
+                                   RunOptions options, PipelineMetrics metrics) throws IOException {
+        List<UserRecommendation> recommendations = recommend(engine, batch, options);
+
+        long start = metrics.startTimer();
+        for (UserRecommendation rec : recommendations) {
+            sink.write(rec);
+        }
+        metrics.recordStage(Stage.WRITE, start, recommendations.size());
+        batch.clear();
+    }
+
+    private static List<UserRecommendation> recommend(Recommender engine, List<User> users,
+                                                      RunOptions options) {
+        return options.getTopK() > 0
+                ? engine.generateAllTopK(users, options.getTopK(), options.getParallelism())
+                : engine.generateAll(users, options.getParallelism());
+    }
+}
@@ -0,0 +1,286 @@
+package App;
+
+import services.SimilarUserEngine;
+import validators.MovieValidator;
+
+public class RunOptions {
+    private int topK;
+    private int parallelism = 1;
+    private boolean streaming;
+    private boolean mappedMovies;
+    private int movieIdDigits = MovieValidator.DEFAULT_SUFFIX_DIGITS;
+    private boolean uniqueFullMovieId;
+    private boolean metrics;
+    private int servePort;
+    private int candidateCacheSize;
+    private boolean bitsetIndex;
+    private boolean coLike;
+    private boolean similarUsers;
+    private boolean compact;
+    private boolean snapshot;
+    private int outputShards = 1;
+    private boolean keepParts;
+    private boolean gzip;
+    private boolean binaryOutput;
+    private boolean indexed;
+    private boolean channelOutput;
+    private int lshBands = SimilarUserEngine.DEFAULT_BANDS;
+    private int lshRows = SimilarUserEngine.DEFAULT_ROWS;
+    private int serverThreads = Runtime.getRuntime().availableProcessors();
+
+    public static RunOptions parse(String[] args) {
+        RunOptions options = new RunOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--top-k":
+                    options.topK = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--parallelism":
+                    options.parallelism = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--streaming":
+                    options.streaming = true;
+                    break;
+                case "--mmap":
+                    options.mappedMovies = true;
+                    break;
+                case "--id-digits":
+                    options.movieIdDigits = parsePositiveInt(arg, valueAfter(args, i));
+                    if (options.movieIdDigits > MovieValidator.MAX_SUFFIX_DIGITS) {
+                        throw new IllegalArgumentException("Invalid value for " + arg + ": "
+                                + options.movieIdDigits);
+                    }
+                    i++;
+                    break;
+                case "--unique-full-id":
+                    options.uniqueFullMovieId = true;
+                    break;
+                case "--metrics":
+                    options.metrics = true;
+                    break;
+                case "--candidate-cache":
+                    options.candidateCacheSize = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--bitset-index":
+                    options.bitsetIndex = true;
+                    break;
+                case "--co-like":
+                    options.coLike = true;
+                    break;
+                case "--similar-users":
+                    options.similarUsers = true;
+                    break;
+                case "--lsh-bands":
+                    options.lshBands = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--lsh-rows":
+                    options.lshRows = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--compact":
+                    options.compact = true;
+                    break;
+                case "--snapshot":
+                    // The snapshot holds a compact catalog
+                    options.snapshot = true;
+                    options.compact = true;
+                    break;
+                case "--output-shards":
+                    options.outputShards = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--keep-parts":
+                    options.keepParts = true;
+                    break;
+                case "--gzip":
+                    options.gzip = true;
+                    break;
+                case "--binary-output":
+                    options.binaryOutput = true;
+                    break;
+                case "--index":
+                    options.indexed = true;
+                    break;
+                case "--nio-output":
+                    options.channelOutput = true;
+                    break;
+                case "--serve":
+                    options.servePort = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                case "--threads":
+                    options.serverThreads = parsePositiveInt(arg, valueAfter(args, i));
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        // The co-like and similar-user models need every user before they can
+        // recommend to any
+        String model = options.coLike ? "--co-like" : options.similarUsers ? "--similar-users" : null;
+        if (options.coLike && options.similarUsers) {
+            throw new IllegalArgumentException("--co-like cannot be combined with --similar-users");
+        }
+        if (model != null && (options.streaming || options.servePort > 0)) {
+            throw new IllegalArgumentException(model + " cannot be combined with "
+                    + (options.streaming ? "--streaming" : "--serve"));
+        }
+        // The compact catalog is read-only and has no genre model of its own
+        // to replace the user-based ones with
+        if (options.compact && (model != null || options.servePort > 0)) {
+            throw new IllegalArgumentException("--compact cannot be combined with "
+                    + (model != null ? model : "--serve"));
+        }
+        // Only the genre engine has a bitset mode
+        if (options.bitsetIndex && (options.compact || model != null)) {
+            throw new IllegalArgumentException("--bitset-index cannot be combined with "
+                    + (model != null ? model : "--compact"));
+        }
+        // Streaming writes each batch as it comes, so there is no full list
+        // of recommendations to split
+        if (options.outputShards > 1 && options.streaming) {
+            throw new IllegalArgumentException("--output-shards cannot be combined with --streaming");
+        }
+        if (options.keepParts && options.outputShards == 1) {
+            throw new IllegalArgumentException("--keep-parts requires --output-shards");
+        }
+        // Offsets into compressed output cannot be seeked to
+        if (options.indexed && options.gzip) {
+            throw new IllegalArgumentException("--index cannot be combined with --gzip");
+        }
+        // A binary file carries its own title table and cannot be split
+        if (options.binaryOutput && (options.gzip || options.outputShards > 1)) {
+            throw new IllegalArgumentException("--binary-output cannot be combined with "
+                    + (options.gzip ? "--gzip" : "--output-shards"));
+        }
+        if (options.channelOutput && (options.gzip || options.binaryOutput)) {
+            throw new IllegalArgumentException("--nio-output cannot be combined with "
+                    + (options.gzip ? "--gzip" : "--binary-output"));
+        }
+
+        return options;
+    }
+
+    private static String valueAfter(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    private static int parsePositiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    // 0 means every matching movie is recommended, unranked
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public boolean isMappedMovies() {
+        return mappedMovies;
+    }
+
+    public int getMovieIdDigits() {
+        return movieIdDigits;
+    }
+
+    public boolean isUniqueFullMovieId() {
+        return uniqueFullMovieId;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    // 0 means candidate sets are not cached
+    public int getCandidateCacheSize() {
+        return candidateCacheSize;
+    }
+
+    public boolean isBitsetIndex() {
+        return bitsetIndex;
+    }
+
+    public boolean isCoLike() {
+        return coLike;
+    }
+
+    public boolean isSimilarUsers() {
+        return similarUsers;
+    }
+
+    public int getLshBands() {
+        return lshBands;
+    }
+
+    public int getLshRows() {
+        return lshRows;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public int getOutputShards() {
+        return outputShards;
+    }
+
+    public boolean isKeepParts() {
+        return keepParts;
+    }
+
+    // Compressed on getParallelism() threads
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public boolean isBinaryOutput() {
+        return binaryOutput;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public boolean isChannelOutput() {
+        return channelOutput;
+    }
+
+    // 0 means run once over users.txt instead of serving requests
+    public int getServePort() {
+        return servePort;
+    }
+
+    public int getServerThreads() {
+        return serverThreads;
+    }
+}
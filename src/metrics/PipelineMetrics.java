@@ -0,0 +1,211 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Stage timers, counters and per-user histograms for one recommendation run.
+// DISABLED turns every call into a field read and a return, so instrumented
+// code costs nothing measurable when metrics are off.
+public class PipelineMetrics implements PipelineMetricsMXBean {
+    public static final String OBJECT_NAME = "movierecommendation:type=PipelineMetrics";
+    public static final PipelineMetrics DISABLED = new PipelineMetrics(false);
+
+    private final boolean enabled;
+    private final AtomicLongArray stageNanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicLongArray stageRecords = new AtomicLongArray(Stage.values().length);
+    private final LatencyHistogram recommendationNanos = new LatencyHistogram();
+    private final LatencyHistogram candidateSetSizes = new LatencyHistogram();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong candidateCacheHits = new AtomicLong();
+    private final AtomicLong candidateCacheMisses = new AtomicLong();
+
+    public PipelineMetrics() {
+        this(true);
+    }
+
+    private PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void recordStage(Stage stage, long start, long records) {
+        if (!enabled) return;
+        stageNanos.addAndGet(stage.ordinal(), System.nanoTime() - start);
+        stageRecords.addAndGet(stage.ordinal(), records);
+    }
+
+    public void recordRecommendation(long start, int candidates) {
+        if (!enabled) return;
+        long elapsed = System.nanoTime() - start;
+        stageNanos.addAndGet(Stage.RECOMMEND.ordinal(), elapsed);
+        stageRecords.incrementAndGet(Stage.RECOMMEND.ordinal());
+        recommendationNanos.record(elapsed);
+        candidateSetSizes.record(candidates);
+    }
+
+    public void recordCandidateCacheLookup(boolean hit) {
+        if (!enabled) return;
+        (hit ? candidateCacheHits : candidateCacheMisses).incrementAndGet();
+    }
+
+    public void addBytesWritten(long bytes) {
+        if (!enabled) return;
+        bytesWritten.addAndGet(bytes);
+    }
+
+    // Replaces a bean left registered by an earlier run in the same JVM
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos.get(stage.ordinal());
+    }
+
+    public long getStageRecords(Stage stage) {
+        return stageRecords.get(stage.ordinal());
+    }
+
+    public double getRecordsPerSecond(Stage stage) {
+        long nanos = getStageNanos(stage);
+        return nanos == 0 ? 0 : getStageRecords(stage) * 1e9 / nanos;
+    }
+
+    @Override
+    public Map<String, Long> getStageRecords() {
+        Map<String, Long> records = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            records.put(stage.getLabel(), getStageRecords(stage));
+        }
+        return records;
+    }
+
+    @Override
+    public Map<String, Long> getStageMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            millis.put(stage.getLabel(), getStageNanos(stage) / 1_000_000);
+        }
+        return millis;
+    }
+
+    @Override
+    public Map<String, Double> getStageRecordsPerSecond() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            rates.put(stage.getLabel(), getRecordsPerSecond(stage));
+        }
+        return rates;
+    }
+
+    @Override
+    public long getRecommendations() {
+        return recommendationNanos.getCount();
+    }
+
+    @Override
+    public double getRecommendationLatencyP50Micros() {
+        return recommendationNanos.getPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getRecommendationLatencyP90Micros() {
+        return recommendationNanos.getPercentile(90) / 1000.0;
+    }
+
+    @Override
+    public double getRecommendationLatencyP99Micros() {
+        return recommendationNanos.getPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getRecommendationLatencyMaxMicros() {
+        return recommendationNanos.getMax() / 1000.0;
+    }
+
+    @Override
+    public double getCandidateSetMean() {
+        return candidateSetSizes.getMean();
+    }
+
+    @Override
+    public long getCandidateSetP50() {
+        return candidateSetSizes.getPercentile(50);
+    }
+
+    @Override
+    public long getCandidateSetP99() {
+        return candidateSetSizes.getPercentile(99);
+    }
+
+    @Override
+    public long getCandidateSetMax() {
+        return candidateSetSizes.getMax();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public long getCandidateCacheHits() {
+        return candidateCacheHits.get();
+    }
+
+    @Override
+    public long getCandidateCacheMisses() {
+        return candidateCacheMisses.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < stageNanos.length(); i++) {
+            stageNanos.set(i, 0);
+            stageRecords.set(i, 0);
+        }
+        recommendationNanos.reset();
+        candidateSetSizes.reset();
+        bytesWritten.set(0);
+        candidateCacheHits.set(0);
+        candidateCacheMisses.set(0);
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            report.append(String.format("%-17s %10d records %10.1f ms %14.1f records/s%n",
+                    stage.getLabel(), getStageRecords(stage), getStageNanos(stage) / 1e6,
+                    getRecordsPerSecond(stage)));
+        }
+        report.append(String.format("recommend latency p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us%n",
+                getRecommendationLatencyP50Micros(), getRecommendationLatencyP90Micros(),
+                getRecommendationLatencyP99Micros(), getRecommendationLatencyMaxMicros()));
+        report.append(String.format("candidate set mean %.1f, p50 %d, p99 %d, max %d%n",
+                getCandidateSetMean(), getCandidateSetP50(), getCandidateSetP99(), getCandidateSetMax()));
+        if (getCandidateCacheHits() + getCandidateCacheMisses() > 0) {
+            report.append(String.format("candidate cache hits %d, misses %d%n",
+                    getCandidateCacheHits(), getCandidateCacheMisses()));
+        }
+        report.append(String.format("bytes written %d%n", getBytesWritten()));
+        return report.toString();
+    }
+}
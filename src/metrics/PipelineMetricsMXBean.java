@@ -0,0 +1,37 @@
+package metrics;
+
+import java.util.Map;
+
+public interface PipelineMetricsMXBean {
+    Map<String, Long> getStageRecords();
+
+    Map<String, Long> getStageMillis();
+
+    Map<String, Double> getStageRecordsPerSecond();
+
+    long getRecommendations();
+
+    double getRecommendationLatencyP50Micros();
+
+    double getRecommendationLatencyP90Micros();
+
+    double getRecommendationLatencyP99Micros();
+
+    double getRecommendationLatencyMaxMicros();
+
+    double getCandidateSetMean();
+
+    long getCandidateSetP50();
+
+    long getCandidateSetP99();
+
+    long getCandidateSetMax();
+
+    long getBytesWritten();
+
+    long getCandidateCacheHits();
+
+    long getCandidateCacheMisses();
+
+    void reset();
+}
@@ -0,0 +1,20 @@
+package metrics;
+
+public enum Stage {
+    MOVIE_PARSE("movie-parse"),
+    MOVIE_VALIDATION("movie-validation"),
+    USER_PARSE("user-parse"),
+    ENGINE_BUILD("engine-build"),
+    RECOMMEND("recommend"),
+    WRITE("write");
+
+    private final String label;
+
+    Stage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,196 @@
+package parsers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Walks a file line by line through a memory-mapped window, splitting lines the
+// same way BufferedReader.readLine does (\n, \r or \r\n). Files larger than one
+// mapping are read through successive windows that always start on a line.
+// Fields are decoded with the platform charset, like FileReader, which must be
+// ASCII-compatible for the byte scan to find commas and line breaks.
+class MappedLines implements Closeable {
+    static final int DEFAULT_WINDOW = 1 << 30;
+
+    private FileChannel channel;
+    private long size;
+    private int window;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private int next;
+    private int lineStart;
+    private int lineEnd;
+
+    MappedLines(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW);
+    }
+
+    MappedLines(Path path, int window) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = window;
+        map(0);
+    }
+
+    private void map(long position) throws IOException {
+        bufferStart = position;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(window, size - position));
+        next = 0;
+    }
+
+    private boolean mappedToEnd() {
+        return bufferStart + buffer.limit() >= size;
+    }
+
+    boolean nextLine() throws IOException {
+        if (bufferStart + next >= size) {
+            return false;
+        }
+
+        int end;
+        while ((end = findTerminator(next)) < 0) {
+            if (next == 0) {
+                if (window == Integer.MAX_VALUE) {
+                    throw new IOException("Line longer than " + Integer.MAX_VALUE + " bytes");
+                }
+                window = (int) Math.min(2L * window, Integer.MAX_VALUE);
+            }
+            map(bufferStart + next);
+        }
+
+        lineStart = next;
+        lineEnd = end;
+
+        next = end;
+        if (next < buffer.limit()) {
+            byte terminator = buffer.get(next++);
+            if (terminator == '\r' && next < buffer.limit() && buffer.get(next) == '\n') {
+                next++;
+            }
+        }
+        return true;
+    }
+
+    // Index of the \n or \r ending the line at from, the buffer limit for an
+    // unterminated last line, or -1 if the line runs past the mapped window
+    private int findTerminator(int from) {
+        int limit = buffer.limit();
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                return i;
+            }
+            if (b == '\r') {
+                // A \r on the window edge may be the first half of \r\n
+                return i + 1 < limit || mappedToEnd() ? i : -1;
+            }
+        }
+        return mappedToEnd() ? limit : -1;
+    }
+
+    int start() {
+        return lineStart;
+    }
+
+    int end() {
+        return lineEnd;
+    }
+
+    int indexOf(byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Same bounds String.trim would keep: strips bytes up to and including space
+    String trimmedText(int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return text(from, to);
+    }
+
+    // Like trimmedText, but an ASCII field is returned as a view over its
+    // bytes in reuse, valid until the next line is read, so a caller can
+    // check it before paying for a String. ASCII bytes are the same chars in
+    // any ASCII-compatible charset; other fields are decoded as usual.
+    CharSequence trimmedView(int from, int to, ByteText reuse) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) < 0) {
+                return text(from, to);
+            }
+        }
+        return reuse.set(buffer, from, to);
+    }
+
+    String text(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        ByteBuffer view = buffer.duplicate();
+        view.position(from);
+        view.get(bytes);
+        return new String(bytes, Charset.defaultCharset());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ASCII bytes of one field read as chars; toString copies them out
+    static class ByteText implements CharSequence {
+        private ByteBuffer buffer;
+        private int from;
+        private int length;
+
+        ByteText set(ByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.from = from;
+            this.length = to - from;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) buffer.get(from + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.get(from, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package parsers;
+
+import models.Movie;
+import validators.MovieValidator;
+import exceptions.ValidationException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.ArrayList;
+
+// Byte-level counterpart of MovieParser: scans a memory-mapped file for commas
+// and line breaks instead of reading Strings and splitting them, and accepts
+// and rejects exactly the same files. Title and ID are validated as views
+// over the mapped bytes and only become Strings once they pass.
+public class MappedMovieParser {
+    private MovieValidator validator;
+    private int window;
+    private final MappedLines.ByteText titleView = new MappedLines.ByteText();
+    private final MappedLines.ByteText idView = new MappedLines.ByteText();
+
+    public MappedMovieParser() {
+        this(new MovieValidator());
+    }
+
+    public MappedMovieParser(MovieValidator validator) {
+        this(validator, MappedLines.DEFAULT_WINDOW);
+    }
+
+    MappedMovieParser(MovieValidator validator, int window) {
+        this.validator = validator;
+        this.window = window;
+    }
+
+    public List<Movie> parseMovies(String filename)
+            throws ValidationException, IOException {
+        List<Movie> movies = new ArrayList<>();
+
+        try (MappedLines lines = new MappedLines(Paths.get(filename), window)) {
+            while (lines.nextLine()) {
+                int comma = lines.indexOf((byte) ',', lines.start(), lines.end());
+                if (comma < 0) {
+                    throw new ValidationException("Invalid movie format");
+                }
+
+                CharSequence titleText = lines.trimmedView(lines.start(), comma, titleView);
+                CharSequence idText = lines.trimmedView(comma + 1, lines.end(), idView);
+
+                validator.validateMovie(titleText, idText);
+                String title = titleText.toString();
+                String id = idText.toString();
+
+                if (!lines.nextLine()) {
+                    throw new ValidationException("Missing genres line");
+                }
+
+                movies.add(new Movie(title, id, splitGenres(lines)));
+            }
+        }
+
+        return movies;
+    }
+
+    // Mirrors line.split(",") followed by trim(): trailing empty fields are
+    // dropped, but a line without any comma always yields one genre
+    private List<String> splitGenres(MappedLines lines) {
+        List<String> genres = new ArrayList<>();
+        int kept = 0;
+        boolean sawComma = false;
+
+        int from = lines.start();
+        while (true) {
+            int comma = lines.indexOf((byte) ',', from, lines.end());
+            int to = comma < 0 ? lines.end() : comma;
+
+            genres.add(lines.trimmedText(from, to));
+            if (to > from) {
+                kept = genres.size();
+            }
+
+            if (comma < 0) break;
+            sawComma = true;
+            from = comma + 1;
+        }
+
+        while (sawComma && genres.size() > kept) {
+            genres.remove(genres.size() - 1);
+        }
+        return genres;
+    }
+}
@@ -13,7 +13,11 @@ public class MovieParser {
     private MovieValidator validator;
 
     public MovieParser() {
-        this.validator = new MovieValidator();
+        this(new MovieValidator());
+    }
+
+    public MovieParser(MovieValidator validator) {
+        this.validator = validator;
     }
 
     public List<Movie> parseMovies(String filename)
@@ -0,0 +1,218 @@
+package parsers;
+
+import models.User;
+import validators.UserIdSet;
+import validators.UserValidator;
+import exceptions.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Parses users.txt in byte-range chunks on several threads and returns the same
+// users, or throws the same first error, as UserParser.parseUsers.
+//
+// A record is a name line followed by a liked-movies line, so a chunk can only
+// tell which kind of line it starts on by knowing how many lines precede it.
+// The first pass counts line starts per chunk; the prefix sums then give every
+// chunk the offset of its first name line and the number of records it owns.
+public class ParallelUserParser {
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final int SCAN_BUFFER_BYTES = 1 << 16;
+
+    private UserValidator validator;
+    private int parallelism;
+    private long chunkBytes;
+
+    public ParallelUserParser(int parallelism) {
+        this(parallelism, 0);
+    }
+
+    // chunkBytes of 0 sizes chunks from the file length and parallelism
+    ParallelUserParser(int parallelism, long chunkBytes) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.validator = new UserValidator();
+        this.parallelism = parallelism;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public List<User> parseUsers(String filename)
+            throws ValidationException, IOException {
+        Path path = Paths.get(filename);
+        long size = Files.size(path);
+
+        long chunk = chunkBytes > 0 ? chunkBytes : Math.max(MIN_CHUNK_BYTES,
+                (size + parallelism * 4L - 1) / (parallelism * 4L));
+        int chunks = (int) Math.max(1, (size + chunk - 1) / chunk);
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<LineScan>> scans = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                for (int i = 0; i < chunks; i++) {
+                    long from = i * chunk;
+                    long to = Math.min(size, from + chunk);
+                    scans.add(pool.submit(() -> scanLineStarts(channel, from, to)));
+                }
+
+                List<Future<Chunk>> parsed = new ArrayList<>();
+                long linesBefore = 0;
+                for (Future<LineScan> future : scans) {
+                    LineScan scan = await(future);
+                    boolean startsOnNameLine = linesBefore % 2 == 0;
+                    long position = startsOnNameLine ? scan.firstStart : scan.secondStart;
+                    long records = (scan.starts + (startsOnNameLine ? 1 : 0)) / 2;
+                    parsed.add(pool.submit(() -> parseChunk(path, position, records)));
+                    linesBefore += scan.starts;
+                }
+
+                return merge(path, parsed);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Walks the chunks in file order with one shared ID set, so a duplicate
+    // across chunks is reported at the same user sequential parsing would stop at
+    private List<User> merge(Path path, List<Future<Chunk>> parsed)
+            throws ValidationException, IOException {
+        List<User> users = new ArrayList<>();
+        UserIdSet userIds = new UserIdSet();
+
+        for (Future<Chunk> future : parsed) {
+            Chunk chunk = await(future);
+
+            if (chunk.error != null) {
+                // Re-read the failing chunk against every earlier ID: an earlier
+                // user may be a duplicate, or the duplicate check may come
+                // before the chunk's own error for the same record
+                try (UserReader reader = new UserReader(openAt(path, chunk.position), validator, userIds)) {
+                    for (long i = 0; i < chunk.records; i++) {
+                        reader.readUser();
+                    }
+                }
+                throw chunk.error;
+            }
+
+            for (User user : chunk.users) {
+                validator.validateUniqueUserId(user.getId(), userIds);
+                userIds.add(user.getId());
+                users.add(user);
+            }
+        }
+
+        return users;
+    }
+
+    private LineScan scanLineStarts(FileChannel channel, long from, long to) throws IOException {
+        LineScan scan = new LineScan();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+
+        // A line starts after \n, or after a \r that is not the start of \r\n
+        long position = Math.max(0, from - 1);
+        int previous = from == 0 ? '\n' : -1;
+
+        while (position < to) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), to - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (position + i >= from
+                        && (previous == '\n' || (previous == '\r' && b != '\n'))) {
+                    scan.addStart(position + i);
+                }
+                previous = b;
+            }
+            position += read;
+        }
+
+        return scan;
+    }
+
+    private Chunk parseChunk(Path path, long position, long records) throws IOException {
+        Chunk chunk = new Chunk(position, records);
+        if (records == 0) {
+            return chunk;
+        }
+
+        try (UserReader reader = new UserReader(openAt(path, position), validator)) {
+            for (long i = 0; i < records; i++) {
+                chunk.users.add(reader.readUser());
+            }
+        } catch (ValidationException e) {
+            chunk.error = e;
+        }
+        return chunk;
+    }
+
+    private BufferedReader openAt(Path path, long position) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(position);
+        return new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(channel), Charset.defaultCharset()));
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing users", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static class LineScan {
+        private long starts;
+        private long firstStart = -1;
+        private long secondStart = -1;
+
+        void addStart(long position) {
+            if (starts == 0) {
+                firstStart = position;
+            } else if (starts == 1) {
+                secondStart = position;
+            }
+            starts++;
+        }
+    }
+
+    private static class Chunk {
+        private final long position;
+        private final long records;
+        private final List<User> users = new ArrayList<>();
+        private ValidationException error;
+
+        Chunk(long position, long records) {
+            this.position = position;
+            this.records = records;
+        }
+    }
+}
@@ -6,10 +6,9 @@ import exceptions.ValidationException;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Set;
-import java.util.HashSet;
 
 public class UserParser {
     private UserValidator validator;
@@ -21,41 +20,26 @@ public class UserParser {
     public List<User> parseUsers(String filename)
             throws ValidationException, IOException {
         List<User> users = new ArrayList<>();
-        Set<String> userIds = new HashSet<>();
-        BufferedReader reader = new BufferedReader(new FileReader(filename));
-
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] nameIdParts = line.split(",", 2);
-            if (nameIdParts.length != 2) {
-                reader.close();
-                throw new ValidationException("Invalid user format");
-            }
-
-            String name = nameIdParts[0].trim();
-            String id = nameIdParts[1].trim();
-
-            validator.validateUserName(nameIdParts[0]);
-            validator.validateUserId(nameIdParts[1]);
-            validator.validateUniqueUserId(id, userIds);
-            userIds.add(id);
-
-            line = reader.readLine();
-            if (line == null) {
-                reader.close();
-                throw new ValidationException("Missing liked movies line");
-            }
 
-            String[] movieIdArray = line.split(",");
-            List<String> likedMovieIds = new ArrayList<>();
-            for (String movieId : movieIdArray) {
-                likedMovieIds.add(movieId.trim());
+        try (UserReader reader = openUsers(filename)) {
+            User user;
+            while ((user = reader.readUser()) != null) {
+                users.add(user);
             }
-
-            users.add(new User(name, id, likedMovieIds));
         }
 
-        reader.close();
         return users;
     }
-}
\ No newline at end of file
+
+    // Reads users one at a time so callers never hold the whole file in memory;
+    // the caller owns the returned reader and must close it
+    public UserReader openUsers(String filename) throws IOException {
+        return openUsers(new FileReader(filename));
+    }
+
+    // Same as openUsers(filename) for users.txt content from any source, such
+    // as a request body
+    public UserReader openUsers(Reader reader) {
+        return new UserReader(new BufferedReader(reader), validator);
+    }
+}
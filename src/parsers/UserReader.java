@@ -0,0 +1,68 @@
+package parsers;
+
+import models.User;
+import validators.UserIdSet;
+import validators.UserValidator;
+import exceptions.ValidationException;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+
+public class UserReader implements Closeable {
+    private BufferedReader reader;
+    private UserValidator validator;
+    private UserIdSet userIds;
+
+    UserReader(BufferedReader reader, UserValidator validator) {
+        this(reader, validator, new UserIdSet());
+    }
+
+    // userIds holds the IDs already taken by users read before this reader's
+    // first line, and receives every ID this reader accepts
+    UserReader(BufferedReader reader, UserValidator validator, UserIdSet userIds) {
+        this.reader = reader;
+        this.validator = validator;
+        this.userIds = userIds;
+    }
+
+    // Returns null once every user in the file has been read
+    public User readUser() throws ValidationException, IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+
+        String[] nameIdParts = line.split(",", 2);
+        if (nameIdParts.length != 2) {
+            throw new ValidationException("Invalid user format");
+        }
+
+        String name = nameIdParts[0].trim();
+        String id = nameIdParts[1].trim();
+
+        validator.validateUserName(nameIdParts[0]);
+        validator.validateUserId(nameIdParts[1]);
+        validator.validateUniqueUserId(id, userIds);
+        userIds.add(id);
+
+        line = reader.readLine();
+        if (line == null) {
+            throw new ValidationException("Missing liked movies line");
+        }
+
+        String[] movieIdArray = line.split(",");
+        List<String> likedMovieIds = new ArrayList<>();
+        for (String movieId : movieIdArray) {
+            likedMovieIds.add(movieId.trim());
+        }
+
+        return new User(name, id, likedMovieIds);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,134 @@
+package server;
+
+import services.RecommendationEngine;
+import exceptions.ValidationException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Keeps the current engine for a movies file and swaps in a new one whenever
+// the file changes. Each new catalog is parsed, validated and indexed on the
+// watcher thread; readers only ever see a fully built engine, and a request
+// that already holds the old one finishes on it. A catalog that fails
+// validation, or that the loader cannot handle at all, is reported and the
+// previous engine stays in place.
+public class CatalogWatcher implements Supplier<RecommendationEngine>, Closeable {
+
+    public interface Loader {
+        RecommendationEngine load() throws ValidationException, IOException;
+    }
+
+    // Editors and copy tools often write a file in several steps; events that
+    // arrive within this window are handled as one reload
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path moviesFile;
+    private final Loader loader;
+    private final AtomicReference<RecommendationEngine> current;
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private WatchService watchService;
+
+    public CatalogWatcher(Path moviesFile, Loader loader) throws ValidationException, IOException {
+        this.moviesFile = moviesFile.toAbsolutePath();
+        this.loader = loader;
+        this.current = new AtomicReference<>(loader.load());
+    }
+
+    @Override
+    public RecommendationEngine get() {
+        return current.get();
+    }
+
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        moviesFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(this::watch, "catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    // Loads the file now; returns false and keeps the current engine when the
+    // new catalog cannot be read or fails validation. Malformed input can also
+    // surface as a RuntimeException from deep in the validators (a short movie
+    // ID, for one); that is treated the same way so the watcher thread survives
+    // it and the next save is still picked up. Reloads run one at a
+    // time so an older catalog can never replace a newer one; readers are
+    // never held up by this lock.
+    public synchronized boolean reload() {
+        try {
+            current.set(loader.load());
+            reloads.incrementAndGet();
+            lastError.set(null);
+            return true;
+        } catch (ValidationException | IOException e) {
+            lastError.set(e.getMessage());
+            System.err.println("Catalog reload failed, keeping previous catalog: " + e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            lastError.set(e.toString());
+            System.err.println("Catalog reload failed, keeping previous catalog: " + e);
+            return false;
+        }
+    }
+
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    // Message of the last failed reload, or null when the last one succeeded
+    public String getLastError() {
+        return lastError.get();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = touchesMoviesFile(key);
+
+                // Drain the burst of events a single save produces
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= touchesMoviesFile(key);
+                }
+
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean touchesMoviesFile(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || moviesFile.getFileName().equals(event.context())) {
+                touched = true;
+            }
+        }
+        key.reset();
+        return touched;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package server;
+
+import models.User;
+import models.UserRecommendation;
+import parsers.UserParser;
+import parsers.UserReader;
+import services.Recommender;
+import services.RecommendationSink;
+import services.TextRecommendationSink;
+import validators.UserValidator;
+import exceptions.ValidationException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Serves recommendations from a warm engine.
+//
+//   GET  /recommendations?liked=ID1,ID2[&k=N]  -> one line of comma-separated titles
+//   POST /recommendations                      -> users.txt content in, recommendations.txt content out
+//
+// Invalid users and liked IDs are answered with 400 and the same kind of
+// error the batch run writes to recommendations.txt; bad query parameters
+// get an "ERROR: ..." line in the same style.
+public class RecommendationServer {
+    public static final String PATH = "/recommendations";
+    static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final UserValidator validator = new UserValidator();
+
+    private final Supplier<? extends Recommender> engines;
+    private final int defaultTopK;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+
+    // The JDK server writes headers and body separately; without TCP_NODELAY
+    // Nagle's algorithm and delayed ACKs add ~40 ms to every small response.
+    // The setting is JVM-wide and read when the first HttpServer is created,
+    // so the app calls this at startup rather than the server setting it
+    // behind the caller's back. An explicit -D value is left alone.
+    public static void enableNoDelay() {
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    // threads handlers run concurrently on the shared engine; defaultTopK of 0
+    // returns every matching title unless a request asks for k
+    public RecommendationServer(Recommender engine, int port, int threads, int defaultTopK)
+            throws IOException {
+        this(() -> engine, port, threads, defaultTopK);
+    }
+
+    // Each request takes one engine from engines and uses it throughout, so a
+    // swap never changes the catalog under a request that has started
+    public RecommendationServer(Supplier<? extends Recommender> engines, int port, int threads,
+                                int defaultTopK) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.engines = engines;
+        this.defaultTopK = defaultTopK;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.handlers = Executors.newFixedThreadPool(threads);
+
+        server.createContext(PATH, this::handle);
+        server.setExecutor(handlers);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        handlers.shutdown();
+    }
+
+    // The bound port, which differs from the requested one when that was 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(PATH)) {
+                respond(exchange, 404, "ERROR: Not found\n");
+            } else if (exchange.getRequestMethod().equals("GET")) {
+                handleGet(exchange);
+            } else if (exchange.getRequestMethod().equals("POST")) {
+                handlePost(exchange);
+            } else {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                respond(exchange, 405, "ERROR: Method not allowed\n");
+            }
+        } catch (ValidationException e) {
+            respond(exchange, 400, e.getMessage() + "\n");
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "ERROR: " + e.getMessage() + "\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleGet(HttpExchange exchange) throws IOException, ValidationException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        String liked = query.get("liked");
+        if (liked == null || liked.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing liked movies");
+        }
+        List<String> likedMovieIds = new ArrayList<>();
+        for (String movieId : liked.split(",")) {
+            likedMovieIds.add(movieId.trim());
+        }
+        validator.validateLikedMovieIds(likedMovieIds);
+
+        int k = query.containsKey("k") ? parseTopK(query.get("k")) : defaultTopK;
+        UserRecommendation rec = recommend(engines.get(), new User("", "", likedMovieIds), k);
+
+        respond(exchange, 200, String.join(",", rec.getRecommendedMovieTitles()) + "\n");
+    }
+
+    // The body is validated in full, exactly as users.txt would be, before any
+    // recommendation is written back
+    private void handlePost(HttpExchange exchange) throws IOException, ValidationException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int k = query.containsKey("k") ? parseTopK(query.get("k")) : defaultTopK;
+
+        List<User> users = new ArrayList<>();
+        try (UserReader reader = new UserParser().openUsers(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            User user;
+            while ((user = reader.readUser()) != null) {
+                users.add(user);
+            }
+        }
+
+        Recommender engine = engines.get();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (RecommendationSink sink = new TextRecommendationSink(
+                new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            for (User user : users) {
+                sink.write(recommend(engine, user, k));
+            }
+        }
+
+        respond(exchange, 200, body.toByteArray());
+    }
+
+    private static UserRecommendation recommend(Recommender engine, User user, int k) {
+        return k > 0 ? engine.generateTopK(user, k) : engine.generateRecommendations(user);
+    }
+
+    private static int parseTopK(String value) {
+        try {
+            int k = Integer.parseInt(value);
+            if (k > 0) {
+                return k;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value for k: " + value);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+
+        for (String pair : rawQuery.split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            query.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                    keyValue.length == 2 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package services;
+
+import models.UserRecommendation;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Streams back a file written by BinaryRecommendationSink, one user at a time.
+// The title table is decoded once when the file is opened, so every user's
+// titles are shared Strings and nothing per user is parsed beyond varints.
+// Opening the error file of a failed run throws an IOException carrying the
+// error message the run recorded.
+public class BinaryRecommendationReader implements Closeable {
+    private final Path file;
+    // Every length and count read from the file is checked against this, so
+    // a damaged field is reported instead of sizing a huge allocation
+    private final long fileSize;
+    private final DataInputStream in;
+    private final long userCount;
+    private final String[] titles;
+    private long usersRead;
+    private byte[] record = new byte[256];
+
+    public BinaryRecommendationReader(Path file) throws IOException {
+        this.file = file;
+        this.fileSize = Files.size(file);
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            int magic = in.readInt();
+            if (magic != BinaryRecommendationSink.MAGIC && magic != BinaryRecommendationSink.ERROR_MAGIC) {
+                throw corrupt("not a binary recommendation file");
+            }
+            int version = in.readInt();
+            if (version != BinaryRecommendationSink.VERSION) {
+                throw corrupt("unsupported version " + version);
+            }
+            if (magic == BinaryRecommendationSink.ERROR_MAGIC) {
+                byte[] message = new byte[readLength("error message")];
+                in.readFully(message);
+                throw new IOException("Recommendation file " + file + " holds an error instead of recommendations: "
+                        + new String(message, StandardCharsets.UTF_8));
+            }
+            this.userCount = in.readLong();
+            int titleCount = in.readInt();
+            if (userCount < 0 || titleCount < 0) {
+                throw corrupt("negative count");
+            }
+            // Each title and each user takes at least one byte
+            if (userCount > fileSize || titleCount > fileSize) {
+                throw corrupt("count larger than the file");
+            }
+
+            this.titles = new String[titleCount];
+            for (int i = 0; i < titleCount; i++) {
+                byte[] title = new byte[readLength("title")];
+                in.readFully(title);
+                titles[i] = new String(title, StandardCharsets.UTF_8);
+            }
+        } catch (EOFException e) {
+            in.close();
+            throw corrupt("truncated header");
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public long userCount() {
+        return userCount;
+    }
+
+    public int titleCount() {
+        return titles.length;
+    }
+
+    public String titleAt(int index) {
+        return titles[index];
+    }
+
+    // null once every user has been read
+    public UserRecommendation read() throws IOException {
+        if (usersRead == userCount) {
+            return null;
+        }
+
+        int length;
+        try {
+            length = readLength("record of user " + usersRead);
+            if (length > record.length) {
+                record = Arrays.copyOf(record, Math.max(record.length * 2, length));
+            }
+            in.readFully(record, 0, length);
+        } catch (EOFException e) {
+            throw corrupt("truncated at user " + usersRead);
+        }
+        UserRecommendation rec = decode(record, 0, length);
+        usersRead++;
+        return rec;
+    }
+
+    // One whole record, length prefix included, as RecommendationIndex finds it
+    UserRecommendation decodeRecord(byte[] bytes) throws IOException {
+        Cursor prefix = new Cursor(bytes, 0, bytes.length);
+        int length = prefix.varint();
+        if (length != bytes.length - prefix.position) {
+            throw corrupt("record length mismatch");
+        }
+        return decode(bytes, prefix.position, bytes.length);
+    }
+
+    private UserRecommendation decode(byte[] bytes, int from, int to) throws IOException {
+        Cursor cursor = new Cursor(bytes, from, to);
+        String name = cursor.string();
+        String id = cursor.string();
+        int count = cursor.varint();
+        // Each title index takes at least one byte
+        if (count > to - cursor.position) {
+            throw corrupt("title count out of bounds for user " + id);
+        }
+        String[] recommended = new String[count];
+        for (int i = 0; i < recommended.length; i++) {
+            int index = cursor.varint();
+            if (index >= titles.length) {
+                throw corrupt("title index " + index + " out of range for user " + id);
+            }
+            recommended[i] = titles[index];
+        }
+        if (cursor.position != to) {
+            throw corrupt("record length mismatch for user " + id);
+        }
+        return new UserRecommendation(name, id, Arrays.asList(recommended));
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return checkedVarint(value);
+            }
+        }
+        throw corrupt("varint too long");
+    }
+
+    private int readLength(String field) throws IOException {
+        int length = readVarint();
+        if (length > fileSize) {
+            throw corrupt(field + " length larger than the file");
+        }
+        return length;
+    }
+
+    // Every varint in the format is a length, count or index
+    private int checkedVarint(int value) throws IOException {
+        if (value < 0) {
+            throw corrupt("negative varint");
+        }
+        return value;
+    }
+
+    // Reads within one record; every read is bounds-checked against to
+    private class Cursor {
+        private final byte[] bytes;
+        private final int to;
+        private int position;
+
+        Cursor(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.position = from;
+            this.to = to;
+        }
+
+        String string() throws IOException {
+            int length = varint();
+            if (length > to - position) {
+                throw corrupt("string out of bounds");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int varint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (position == to) {
+                    throw corrupt("record ends inside a varint");
+                }
+                byte b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return checkedVarint(value);
+                }
+            }
+            throw corrupt("varint too long");
+        }
+    }
+
+    private IOException corrupt(String reason) {
+        return new IOException("Corrupt recommendation file " + file + ": " + reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
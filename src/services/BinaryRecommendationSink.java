@@ -0,0 +1,176 @@
+package services;
+
+import models.UserRecommendation;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.HashMap;
+
+// Binary output read back by BinaryRecommendationReader. Each distinct title
+// is stored once in a header table and users hold indexes into it; users go
+// to a temporary file until the table is complete. Layout: magic, version,
+// user count, title count, the titles, then one varint-length record per
+// user. A failed run writes ERROR_MAGIC, version and the message instead.
+public class BinaryRecommendationSink implements RecommendationSink {
+    public static final int MAGIC = 0x4D524252;
+    public static final int VERSION = 1;
+    public static final int ERROR_MAGIC = 0x4D524245;
+
+    private final Path file;
+    private final Path body;
+    private final OutputStream out;
+    private final Map<String, Integer> titleIndex = new HashMap<>();
+    private final List<byte[]> titles = new ArrayList<>();
+    private long users;
+    private long bodyBytes;
+    private final RecommendationIndex.Builder index;
+    private final RecommendationIndex.Builder bodyIndex;
+    private byte[] record = new byte[256];
+    private int length;
+    private final byte[] prefix = new byte[5];
+    private boolean closed;
+
+    public BinaryRecommendationSink(Path file) throws IOException {
+        this(file, null);
+    }
+
+    // Adds each user's record, length prefix included, to index when there
+    // is one. Offsets are only final once the header size is known on close.
+    public BinaryRecommendationSink(Path file, RecommendationIndex.Builder index) throws IOException {
+        this.file = file;
+        this.index = index;
+        this.bodyIndex = index == null ? null : new RecommendationIndex.Builder();
+        this.body = file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        this.out = new BufferedOutputStream(Files.newOutputStream(body), 1 << 16);
+    }
+
+    @Override
+    public void write(UserRecommendation rec) throws IOException {
+        length = 0;
+        putString(rec.getUserName());
+        putString(rec.getUserId());
+
+        List<String> recommended = rec.getRecommendedMovieTitles();
+        putVarint(recommended.size());
+        for (String title : recommended) {
+            Integer number = titleIndex.get(title);
+            if (number == null) {
+                number = titles.size();
+                titleIndex.put(title, number);
+                titles.add(title.getBytes(StandardCharsets.UTF_8));
+            }
+            putVarint(number);
+        }
+
+        int prefixLength = varint(length, prefix, 0);
+        out.write(prefix, 0, prefixLength);
+        out.write(record, 0, length);
+        if (bodyIndex != null) {
+            bodyIndex.add(rec.getUserId(), bodyBytes, prefixLength + length);
+        }
+        bodyBytes += prefixLength + length;
+        users++;
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, record, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void putVarint(int value) {
+        ensure(5);
+        length = varint(value, record, length);
+    }
+
+    private void ensure(int more) {
+        if (length + more > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, length + more));
+        }
+    }
+
+    // Writes value as an unsigned LEB128 varint at offset; returns the offset
+    // after it
+    static int varint(int value, byte[] bytes, int offset) {
+        while ((value & ~0x7F) != 0) {
+            bytes[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[offset++] = (byte) value;
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            out.close();
+            try (FileChannel output = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 FileChannel records = FileChannel.open(body, StandardOpenOption.READ)) {
+                ByteBuffer header = header();
+                if (index != null) {
+                    index.addAll(bodyIndex, header.remaining());
+                }
+                writeFully(output, header);
+                long size = records.size();
+                for (long position = 0; position < size; ) {
+                    position += records.transferTo(position, size - position, output);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(body);
+        }
+    }
+
+    public static void writeError(Path file, String errorMessage) throws IOException {
+        byte[] message = errorMessage.getBytes(StandardCharsets.UTF_8);
+        byte[] length = new byte[5];
+        int lengthBytes = varint(message.length, length, 0);
+
+        ByteBuffer error = ByteBuffer.allocate(8 + lengthBytes + message.length);
+        error.putInt(ERROR_MAGIC).putInt(VERSION).put(length, 0, lengthBytes).put(message);
+        error.flip();
+        try (FileChannel output = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(output, error);
+        }
+    }
+
+    private ByteBuffer header() {
+        int size = 20;
+        for (byte[] title : titles) {
+            size += 5 + title.length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC).putInt(VERSION).putLong(users).putInt(titles.size());
+        for (byte[] title : titles) {
+            header.put(prefix, 0, varint(title.length, prefix, 0)).put(title);
+        }
+        header.flip();
+        return header;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded LRU map from a canonical genre profile to the candidates that
+// profile produces. The entries are split over independently locked segments
+// so parallel recommendation threads rarely wait on each other.
+class CandidateCache<V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<V>[] segments;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    CandidateCache(int capacity) {
+        this(capacity, SEGMENTS);
+    }
+
+    CandidateCache(int capacity, int maxSegments) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int segmentCount = Math.min(maxSegments, capacity);
+        // Arrays of a generic type cannot be created directly; every element
+        // is a Segment<V> created below and the array never leaves this class
+        @SuppressWarnings("unchecked")
+        Segment<V>[] created = (Segment<V>[]) new Segment<?>[segmentCount];
+        segments = created;
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder so the segments add up to capacity exactly
+            segments[i] = new Segment<>(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+        }
+    }
+
+    // Read before computing a value for put, so a value computed from
+    // postings that changed meanwhile is never stored
+    long generation() {
+        return generation.get();
+    }
+
+    V get(String key) {
+        Segment<V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        (value == null ? misses : hits).incrementAndGet();
+        return value;
+    }
+
+    void put(String key, V value, long computedAt) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (computedAt == generation.get()) {
+                segment.put(key, value);
+            }
+        }
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private Segment<V> segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % segments.length];
+    }
+
+    private static class Segment<V> extends LinkedHashMap<String, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
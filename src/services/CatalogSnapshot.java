@@ -0,0 +1,233 @@
+package services;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// A CompactCatalog saved as one file and opened by memory-mapping it, so
+// opening costs a checksum pass instead of parsing and indexing movies.txt.
+// Layout, big-endian: a 32-byte header (magic, version, stamp, CRC32 of the
+// rest, movie count, genre count), then sections of an int length, 4 bytes
+// of padding and data padded to 8 bytes: genre names first, then
+// CompactCatalog.sections() in order. A snapshot whose version or stamp does
+// not match what it was built from is stale and is not opened.
+public final class CatalogSnapshot {
+    public static final String EXTENSION = ".snapshot";
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x4D524353;
+    private static final int HEADER_BYTES = 32;
+
+    private CatalogSnapshot() {
+    }
+
+    // Changes whenever the source file's size or modification time does, or
+    // the settings it was validated with
+    public static long stampOf(Path source, String settings) throws IOException {
+        long stamp = Files.size(source);
+        stamp = stamp * 31 + Files.getLastModifiedTime(source).toMillis();
+        return stamp * 31 + settings.hashCode();
+    }
+
+    // Written next to the target and moved into place, so a reader never
+    // maps a half-written snapshot
+    public static void write(CompactCatalog catalog, Path file, long stamp) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                out.position(HEADER_BYTES);
+                writeSection(out, crc, encodeNames(catalog.genreNames()));
+                for (Buffer section : catalog.sections()) {
+                    writeSection(out, crc, bytesOf(section));
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putLong(stamp).putLong(crc.getValue())
+                        .putInt(catalog.movieCount()).putInt(catalog.genreCount()).flip();
+                out.position(0);
+                writeFully(out, header);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeSection(FileChannel out, CRC32 crc, ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        ByteBuffer prefix = ByteBuffer.allocate(8).putInt(length).putInt(0);
+        prefix.flip();
+        ByteBuffer padding = ByteBuffer.allocate(padTo8(length) - length);
+
+        for (ByteBuffer part : new ByteBuffer[]{prefix, data, padding}) {
+            crc.update(part.duplicate());
+            writeFully(out, part);
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            out.write(data);
+        }
+    }
+
+    private static int padTo8(int length) {
+        return (length + 7) & ~7;
+    }
+
+    private static ByteBuffer encodeNames(String[] names) {
+        byte[][] encoded = new byte[names.length][];
+        int length = 4;
+        for (int i = 0; i < names.length; i++) {
+            encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            length += 4 + encoded[i].length;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(length).putInt(names.length);
+        for (byte[] name : encoded) {
+            bytes.putInt(name.length).put(name);
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    private static ByteBuffer bytesOf(Buffer section) {
+        int elementBytes = CompactCatalog.elementBytes(section);
+        if (elementBytes == 1) {
+            ByteBuffer view = ((ByteBuffer) section).duplicate();
+            view.clear();
+            return view;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(section.capacity() * elementBytes);
+        if (section instanceof ShortBuffer) {
+            ShortBuffer view = ((ShortBuffer) section).duplicate();
+            view.clear();
+            bytes.asShortBuffer().put(view);
+        } else {
+            IntBuffer view = ((IntBuffer) section).duplicate();
+            view.clear();
+            bytes.asIntBuffer().put(view);
+        }
+        return bytes;
+    }
+
+    // Returns null when the file is missing or stale: written by another
+    // version or for a different stamp. Throws when it is damaged.
+    public static CompactCatalog open(Path file, long stamp) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        MappedByteBuffer map;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (in.size() < HEADER_BYTES || in.size() > Integer.MAX_VALUE) {
+                throw corrupt(file, "unexpected size " + in.size());
+            }
+            // The mapping stays valid after the channel is closed
+            map = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        }
+
+        if (map.getInt(0) != MAGIC) {
+            throw corrupt(file, "not a catalog snapshot");
+        }
+        if (map.getInt(4) != VERSION || map.getLong(8) != stamp) {
+            return null;
+        }
+
+        ByteBuffer body = map.duplicate();
+        body.position(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if (crc.getValue() != map.getLong(16)) {
+            throw corrupt(file, "checksum mismatch");
+        }
+
+        int movieCount = map.getInt(24);
+        int genreCount = map.getInt(28);
+        Sections sections = new Sections(file, map);
+        String[] genreNames = decodeNames(sections.next(), genreCount, file);
+        ByteBuffer titleBytes = sections.next();
+        IntBuffer titleStart = sections.next().asIntBuffer();
+        ByteBuffer idBytes = sections.next();
+        IntBuffer idStart = sections.next().asIntBuffer();
+        IntBuffer idTable = sections.next().asIntBuffer();
+        IntBuffer idRank = sections.next().asIntBuffer();
+        ShortBuffer genres = sections.next().asShortBuffer();
+        IntBuffer genreStart = sections.next().asIntBuffer();
+        IntBuffer postings = sections.next().asIntBuffer();
+        IntBuffer postingStart = sections.next().asIntBuffer();
+
+        if (titleStart.capacity() != movieCount + 1 || idStart.capacity() != movieCount + 1
+                || genreStart.capacity() != movieCount + 1 || idRank.capacity() != movieCount
+                || postingStart.capacity() != genreCount + 1 || Integer.bitCount(idTable.capacity()) != 1) {
+            throw corrupt(file, "section sizes do not match the header");
+        }
+
+        return new CompactCatalog(genreNames, titleBytes, titleStart, idBytes, idStart, idTable, idRank,
+                genres, genreStart, postings, postingStart);
+    }
+
+    private static String[] decodeNames(ByteBuffer bytes, int genreCount, Path file) throws IOException {
+        if (bytes.remaining() < 4 || bytes.getInt() != genreCount) {
+            throw corrupt(file, "genre names do not match the header");
+        }
+
+        String[] names = new String[genreCount];
+        for (int i = 0; i < genreCount; i++) {
+            int length = bytes.remaining() >= 4 ? bytes.getInt() : -1;
+            if (length < 0 || length > bytes.remaining()) {
+                throw corrupt(file, "genre name out of bounds");
+            }
+            byte[] name = new byte[length];
+            bytes.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static IOException corrupt(Path file, String reason) {
+        return new IOException("Corrupt catalog snapshot " + file + ": " + reason);
+    }
+
+    // Walks the sections after the header, handing out each one's data as
+    // its own buffer
+    private static class Sections {
+        private final Path file;
+        private final ByteBuffer map;
+        private int position = HEADER_BYTES;
+
+        Sections(Path file, ByteBuffer map) {
+            this.file = file;
+            this.map = map;
+        }
+
+        ByteBuffer next() throws IOException {
+            if (map.capacity() - position < 8) {
+                throw corrupt(file, "missing section");
+            }
+            int length = map.getInt(position);
+            int start = position + 8;
+            if (length < 0 || length > map.capacity() - start) {
+                throw corrupt(file, "section out of bounds");
+            }
+
+            ByteBuffer view = map.duplicate();
+            view.position(start).limit(start + length);
+            position = start + padTo8(length);
+            return view.slice();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package services;
+
+import models.UserRecommendation;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes the same UTF-8 bytes as a TextRecommendationSink over a UTF-8
+// writer, without building a String per line. Each distinct title is
+// encoded once and its bytes reused; lines collect in a small heap array
+// that is moved into one large direct buffer, which goes to the channel
+// whenever it fills. Only UTF-8 is supported: every token is encoded on its
+// own, which would repeat the byte order mark of a charset such as UTF-16.
+public class ChannelRecommendationSink implements RecommendationSink {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int STAGING_SIZE = 1 << 13;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] staging;
+    private int staged;
+    private final Map<String, byte[]> encodedTitles = new HashMap<>();
+    private final byte[] comma;
+    private final byte[] lineSeparator;
+    private final RecommendationIndex.Builder index;
+    private long flushed;
+
+    public ChannelRecommendationSink(FileChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelRecommendationSink(FileChannel channel, int bufferSize) {
+        this(channel, bufferSize, null);
+    }
+
+    // Adds each user's byte range to index, when there is one
+    public ChannelRecommendationSink(FileChannel channel, int bufferSize, RecommendationIndex.Builder index) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.staging = new byte[Math.min(bufferSize, STAGING_SIZE)];
+        this.comma = ",".getBytes(StandardCharsets.UTF_8);
+        this.lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        this.index = index;
+    }
+
+    @Override
+    public void write(UserRecommendation rec) throws IOException {
+        long start = position();
+        putString(rec.getUserName());
+        put(comma);
+        putString(rec.getUserId());
+        put(lineSeparator);
+
+        List<String> titles = rec.getRecommendedMovieTitles();
+        for (int i = 0; i < titles.size(); i++) {
+            if (i > 0) {
+                put(comma);
+            }
+            String title = titles.get(i);
+            byte[] encoded = encodedTitles.get(title);
+            if (encoded == null) {
+                encoded = title.getBytes(StandardCharsets.UTF_8);
+                encodedTitles.put(title, encoded);
+            }
+            put(encoded);
+        }
+        put(lineSeparator);
+
+        if (index != null) {
+            index.add(rec.getUserId(), start, (int) (position() - start));
+        }
+    }
+
+    // Bytes written so far, including those not yet handed to the channel
+    private long position() {
+        return flushed + buffer.position() + staged;
+    }
+
+    // Names and IDs are rarely repeated, so they are not cached; ASCII ones,
+    // which validated IDs always are, are copied char by char
+    private void putString(String value) throws IOException {
+        int length = value.length();
+        if (length > staging.length) {
+            put(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (staged + length > staging.length) {
+            drain();
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                put(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            staging[staged + i] = (byte) c;
+        }
+        staged += length;
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (staged + bytes.length > staging.length) {
+            drain();
+            if (bytes.length > staging.length) {
+                putDirect(bytes, bytes.length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, staging, staged, bytes.length);
+        staged += bytes.length;
+    }
+
+    // Small copies into a direct buffer cost far more than array copies, so
+    // lines are assembled on the heap and moved over in large blocks
+    private void drain() throws IOException {
+        putDirect(staging, staged);
+        staged = 0;
+    }
+
+    private void putDirect(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    private void flush() throws IOException {
+        flushed += buffer.position();
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
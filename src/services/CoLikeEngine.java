@@ -0,0 +1,288 @@
+package services;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.RecursiveAction;
+
+// Item-to-item collaborative filtering over users.txt: two movies are related
+// by how many users liked both. The counts are a symmetric CSR matrix, and a
+// user is scored by summing the rows of their liked movies. Read-only after
+// construction.
+public class CoLikeEngine implements Recommender {
+    private final Map<String, Integer> movieIndex;
+    private final String[] titles;
+    private final int[] rowStart;
+    private final int[] columns;
+    private final int[] counts;
+    private final ThreadLocal<Scratch> scratch;
+    private final PipelineMetrics metrics;
+
+    public CoLikeEngine(List<Movie> movies, List<User> users, int parallelism) {
+        this(movies, users, parallelism, PipelineMetrics.DISABLED);
+    }
+
+    // Every recommendation reports its latency and candidate count to metrics
+    public CoLikeEngine(List<Movie> movies, List<User> users, int parallelism, PipelineMetrics metrics) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+
+        this.metrics = metrics;
+
+        // A repeated ID keeps its first slot but takes the latest title, as in
+        // GenreIndex
+        this.movieIndex = new HashMap<>();
+        List<String> titleList = new ArrayList<>();
+        for (Movie movie : movies) {
+            Integer index = movieIndex.get(movie.getId());
+            if (index == null) {
+                movieIndex.put(movie.getId(), titleList.size());
+                titleList.add(movie.getTitle());
+            } else {
+                titleList.set(index, movie.getTitle());
+            }
+        }
+        this.titles = titleList.toArray(new String[0]);
+        int n = titles.length;
+
+        int[][] likes = likedIndexes(users);
+        int[][] likedBy = invert(likes, n);
+
+        // Rows are built in the pool batches later run in, with the same
+        // per-thread scratch the queries use
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        int[][] rowColumns = new int[n][];
+        int[][] rowCounts = new int[n][];
+        if (parallelism == 1 || n < 2) {
+            new RowTask(likes, likedBy, rowColumns, rowCounts, scratch, 0, n, n).compute();
+        } else {
+            int threshold = Math.max(1, n / (parallelism * 8));
+            UserBatches.poolFor(parallelism)
+                    .invoke(new RowTask(likes, likedBy, rowColumns, rowCounts, scratch, 0, n, threshold));
+        }
+
+        this.rowStart = new int[n + 1];
+        long nonZero = 0;
+        for (int row = 0; row < n; row++) {
+            nonZero += rowColumns[row].length;
+            if (nonZero > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Co-like matrix exceeds int indexing: more than "
+                        + (Integer.MAX_VALUE - 8) + " movie pairs");
+            }
+            rowStart[row + 1] = (int) nonZero;
+        }
+        this.columns = new int[(int) nonZero];
+        this.counts = new int[(int) nonZero];
+        for (int row = 0; row < n; row++) {
+            System.arraycopy(rowColumns[row], 0, columns, rowStart[row], rowColumns[row].length);
+            System.arraycopy(rowCounts[row], 0, counts, rowStart[row], rowCounts[row].length);
+        }
+    }
+
+    // Each user's distinct, known liked movies as sorted slot numbers. Users
+    // with fewer than two cannot relate any pair and are dropped.
+    private int[][] likedIndexes(List<User> users) {
+        List<int[]> likes = new ArrayList<>(users.size());
+        for (User user : users) {
+            int[] liked = slotsOf(user.getLikedMovieIds());
+            if (liked.length >= 2) {
+                likes.add(liked);
+            }
+        }
+        return likes.toArray(new int[0][]);
+    }
+
+    private static int[][] invert(int[][] likes, int movies) {
+        int[] sizes = new int[movies];
+        for (int[] liked : likes) {
+            for (int movie : liked) {
+                sizes[movie]++;
+            }
+        }
+
+        int[][] likedBy = new int[movies][];
+        for (int movie = 0; movie < movies; movie++) {
+            likedBy[movie] = new int[sizes[movie]];
+        }
+        Arrays.fill(sizes, 0);
+        for (int user = 0; user < likes.length; user++) {
+            for (int movie : likes[user]) {
+                likedBy[movie][sizes[movie]++] = user;
+            }
+        }
+        return likedBy;
+    }
+
+    private int[] slotsOf(List<String> movieIds) {
+        int[] slots = new int[movieIds.size()];
+        int size = 0;
+        for (String movieId : movieIds) {
+            Integer index = movieIndex.get(movieId);
+            if (index != null) {
+                slots[size++] = index;
+            }
+        }
+
+        Arrays.sort(slots, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || slots[distinct - 1] != slots[i]) {
+                slots[distinct++] = slots[i];
+            }
+        }
+        return Arrays.copyOf(slots, distinct);
+    }
+
+    public int movieCount() {
+        return titles.length;
+    }
+
+    // Stored entries; each related pair is stored once in each direction
+    public int nonZeroCount() {
+        return columns.length;
+    }
+
+    // How many users liked both movies, 0 when either is unknown
+    public int coLikes(String movieId, String otherMovieId) {
+        Integer row = movieIndex.get(movieId);
+        Integer column = movieIndex.get(otherMovieId);
+        if (row == null || column == null) {
+            return 0;
+        }
+        int at = Arrays.binarySearch(columns, rowStart[row], rowStart[row + 1], column);
+        return at >= 0 ? counts[at] : 0;
+    }
+
+    // Every co-liked movie, highest summed count first, ties in catalog order
+    @Override
+    public UserRecommendation generateRecommendations(User user) {
+        return rank(user, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public UserRecommendation generateTopK(User user, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        return rank(user, k);
+    }
+
+    private UserRecommendation rank(User user, int limit) {
+        long start = metrics.startTimer();
+        int[] liked = slotsOf(user.getLikedMovieIds());
+        Scratch s = scratch.get();
+
+        int touched = 0;
+        for (int row : liked) {
+            for (int at = rowStart[row]; at < rowStart[row + 1]; at++) {
+                int column = columns[at];
+                if (s.scores[column] == 0) {
+                    s.touched[touched++] = column;
+                }
+                s.scores[column] += counts[at];
+            }
+        }
+        for (int row : liked) {
+            s.scores[row] = 0;
+        }
+
+        // Score descending then slot ascending, packed so a plain sort orders them
+        long[] ranked = new long[touched];
+        int candidates = 0;
+        for (int i = 0; i < touched; i++) {
+            int column = s.touched[i];
+            if (s.scores[column] > 0) {
+                ranked[candidates++] = ((long) (Integer.MAX_VALUE - s.scores[column]) << 32) | column;
+            }
+            s.scores[column] = 0;
+        }
+        Arrays.sort(ranked, 0, candidates);
+
+        int size = Math.min(limit, candidates);
+        List<String> recommendedTitles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            recommendedTitles.add(titles[(int) ranked[i]]);
+        }
+
+        metrics.recordRecommendation(start, candidates);
+        return new UserRecommendation(user.getName(), user.getId(), recommendedTitles);
+    }
+
+    // Per-thread dense accumulator, left zeroed after every call
+    private static class Scratch {
+        private final int[] scores;
+        private final int[] touched;
+
+        Scratch(int movies) {
+            this.scores = new int[movies];
+            this.touched = new int[movies];
+        }
+    }
+
+    private static class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] likes;
+        private final int[][] likedBy;
+        private final int[][] rowColumns;
+        private final int[][] rowCounts;
+        private final ThreadLocal<Scratch> scratch;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        RowTask(int[][] likes, int[][] likedBy, int[][] rowColumns, int[][] rowCounts,
+                ThreadLocal<Scratch> scratch, int from, int to, int threshold) {
+            this.likes = likes;
+            this.likedBy = likedBy;
+            this.rowColumns = rowColumns;
+            this.rowCounts = rowCounts;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(likes, likedBy, rowColumns, rowCounts, scratch, from, mid, threshold),
+                        new RowTask(likes, likedBy, rowColumns, rowCounts, scratch, mid, to, threshold));
+                return;
+            }
+
+            // Every row zeroes what it added, so the scratch is left clean
+            Scratch s = scratch.get();
+            int[] acc = s.scores;
+            int[] touched = s.touched;
+            for (int row = from; row < to; row++) {
+                int size = 0;
+                for (int user : likedBy[row]) {
+                    for (int column : likes[user]) {
+                        if (column != row && acc[column]++ == 0) {
+                            touched[size++] = column;
+                        }
+                    }
+                }
+
+                Arrays.sort(touched, 0, size);
+                int[] rowColumn = Arrays.copyOf(touched, size);
+                int[] rowCount = new int[size];
+                for (int i = 0; i < size; i++) {
+                    rowCount[i] = acc[rowColumn[i]];
+                    acc[rowColumn[i]] = 0;
+                }
+                rowColumns[row] = rowColumn;
+                rowCounts[row] = rowCount;
+            }
+        }
+    }
+}
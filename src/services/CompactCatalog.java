@@ -0,0 +1,329 @@
+package services;
+
+import models.Movie;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.HashMap;
+
+// A read-only catalog as a few flat arrays instead of one Movie, two Strings
+// and a genre List per title. Movies are numbered in catalog order; titles
+// and IDs are UTF-8 arenas with offset arrays, genres are interned shorts and
+// postings are sorted int slices. A repeated ID keeps its first number but
+// takes the latest title and genres, as in GenreIndex. The arrays are heap
+// buffers when built from movies, or views of a CatalogSnapshot mapping.
+public class CompactCatalog {
+    private final int size;
+    private final String[] genreNames;
+    private final ByteBuffer titleBytes;
+    private final IntBuffer titleStart;
+    private final ByteBuffer idBytes;
+    private final IntBuffer idStart;
+    // Open addressing over ID bytes, holding movie + 1 so 0 marks a free slot
+    private final IntBuffer idTable;
+    // Position of each movie's ID in sorted ID order
+    private final IntBuffer idRank;
+    private final ShortBuffer genres;
+    private final IntBuffer genreStart;
+    private final IntBuffer postings;
+    private final IntBuffer postingStart;
+
+    public CompactCatalog(List<Movie> movies) {
+        Map<String, Integer> numbers = new HashMap<>();
+        List<Movie> latest = new ArrayList<>();
+        List<List<String>> postedGenres = new ArrayList<>();
+        for (Movie movie : movies) {
+            Integer number = numbers.putIfAbsent(movie.getId(), latest.size());
+            if (number == null) {
+                latest.add(movie);
+                postedGenres.add(new ArrayList<>(movie.getGenres()));
+            } else {
+                latest.set(number, movie);
+                postedGenres.get(number).addAll(movie.getGenres());
+            }
+        }
+        this.size = latest.size();
+
+        Map<String, Integer> genreNumbers = new HashMap<>();
+        List<String> genreNameList = new ArrayList<>();
+        byte[][] titles = new byte[size][];
+        byte[][] ids = new byte[size][];
+        short[][] movieGenres = new short[size][];
+        int titleLength = 0;
+        int idLength = 0;
+        int genreLength = 0;
+        for (int movie = 0; movie < size; movie++) {
+            titles[movie] = latest.get(movie).getTitle().getBytes(StandardCharsets.UTF_8);
+            ids[movie] = latest.get(movie).getId().getBytes(StandardCharsets.UTF_8);
+            titleLength += titles[movie].length;
+            idLength += ids[movie].length;
+
+            movieGenres[movie] = intern(latest.get(movie).getGenres(), genreNumbers, genreNameList);
+            genreLength += movieGenres[movie].length;
+        }
+
+        byte[] titleBytes = new byte[titleLength];
+        int[] titleStart = new int[size + 1];
+        byte[] idBytes = new byte[idLength];
+        int[] idStart = new int[size + 1];
+        short[] genres = new short[genreLength];
+        int[] genreStart = new int[size + 1];
+        for (int movie = 0; movie < size; movie++) {
+            System.arraycopy(titles[movie], 0, titleBytes, titleStart[movie], titles[movie].length);
+            titleStart[movie + 1] = titleStart[movie] + titles[movie].length;
+            System.arraycopy(ids[movie], 0, idBytes, idStart[movie], ids[movie].length);
+            idStart[movie + 1] = idStart[movie] + ids[movie].length;
+            System.arraycopy(movieGenres[movie], 0, genres, genreStart[movie], movieGenres[movie].length);
+            genreStart[movie + 1] = genreStart[movie] + movieGenres[movie].length;
+        }
+
+        int[] idTable = new int[tableSize(size)];
+        for (int movie = 0; movie < size; movie++) {
+            int mask = idTable.length - 1;
+            int slot = hash(idBytes, idStart[movie], idStart[movie + 1]) & mask;
+            while (idTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            idTable[slot] = movie + 1;
+        }
+
+        // Sorted as Strings, the order the map engine breaks ties in
+        Integer[] byId = new Integer[size];
+        for (int movie = 0; movie < size; movie++) {
+            byId[movie] = movie;
+        }
+        Arrays.sort(byId, (a, b) -> latest.get(a).getId().compareTo(latest.get(b).getId()));
+        int[] idRank = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            idRank[byId[rank]] = rank;
+        }
+
+        // Postings also cover genres of earlier entries with the same ID
+        short[][] posted = new short[size][];
+        int postingLength = 0;
+        for (int movie = 0; movie < size; movie++) {
+            posted[movie] = intern(postedGenres.get(movie), genreNumbers, genreNameList);
+            postingLength += posted[movie].length;
+        }
+        this.genreNames = genreNameList.toArray(new String[0]);
+
+        // Counting pass, then fill; walking movies in order keeps each
+        // posting sorted
+        int[] postingStart = new int[genreNames.length + 1];
+        for (int movie = 0; movie < size; movie++) {
+            for (short genre : posted[movie]) {
+                postingStart[genre + 1]++;
+            }
+        }
+        for (int genre = 0; genre < genreNames.length; genre++) {
+            postingStart[genre + 1] += postingStart[genre];
+        }
+        int[] postings = new int[postingLength];
+        int[] fill = Arrays.copyOf(postingStart, genreNames.length);
+        for (int movie = 0; movie < size; movie++) {
+            for (short genre : posted[movie]) {
+                postings[fill[genre]++] = movie;
+            }
+        }
+
+        this.titleBytes = ByteBuffer.wrap(titleBytes);
+        this.titleStart = IntBuffer.wrap(titleStart);
+        this.idBytes = ByteBuffer.wrap(idBytes);
+        this.idStart = IntBuffer.wrap(idStart);
+        this.idTable = IntBuffer.wrap(idTable);
+        this.idRank = IntBuffer.wrap(idRank);
+        this.genres = ShortBuffer.wrap(genres);
+        this.genreStart = IntBuffer.wrap(genreStart);
+        this.postings = IntBuffer.wrap(postings);
+        this.postingStart = IntBuffer.wrap(postingStart);
+    }
+
+    // Sections in the order sections() lists them; used by CatalogSnapshot
+    CompactCatalog(String[] genreNames, ByteBuffer titleBytes, IntBuffer titleStart, ByteBuffer idBytes,
+                   IntBuffer idStart, IntBuffer idTable, IntBuffer idRank, ShortBuffer genres,
+                   IntBuffer genreStart, IntBuffer postings, IntBuffer postingStart) {
+        this.size = titleStart.capacity() - 1;
+        this.genreNames = genreNames;
+        this.titleBytes = titleBytes;
+        this.titleStart = titleStart;
+        this.idBytes = idBytes;
+        this.idStart = idStart;
+        this.idTable = idTable;
+        this.idRank = idRank;
+        this.genres = genres;
+        this.genreStart = genreStart;
+        this.postings = postings;
+        this.postingStart = postingStart;
+    }
+
+    // Distinct genres in first-seen order, interning new names
+    private static short[] intern(List<String> names, Map<String, Integer> genreNumbers,
+                                  List<String> genreNameList) {
+        short[] slice = new short[names.size()];
+        int distinct = 0;
+        for (String name : names) {
+            Integer genre = genreNumbers.get(name);
+            if (genre == null) {
+                if (genreNameList.size() > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Compact catalog supports at most "
+                            + (Short.MAX_VALUE + 1) + " genres");
+                }
+                genre = genreNameList.size();
+                genreNumbers.put(name, genre);
+                genreNameList.add(name);
+            }
+            if (!contains(slice, distinct, genre)) {
+                slice[distinct++] = (short) (int) genre;
+            }
+        }
+        return Arrays.copyOf(slice, distinct);
+    }
+
+    private static boolean contains(short[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Power of two at least twice the entries, so probes stay short
+    private static int tableSize(int entries) {
+        int size = 2;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    public int movieCount() {
+        return size;
+    }
+
+    public int genreCount() {
+        return genreNames.length;
+    }
+
+    // -1 when no movie has the ID
+    public int indexOfMovie(String movieId) {
+        byte[] key = movieId.getBytes(StandardCharsets.UTF_8);
+        int mask = idTable.capacity() - 1;
+        for (int slot = hash(key, 0, key.length) & mask; idTable.get(slot) != 0; slot = (slot + 1) & mask) {
+            int movie = idTable.get(slot) - 1;
+            if (bytesEqual(idBytes, idStart.get(movie), idStart.get(movie + 1), key)) {
+                return movie;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean bytesEqual(ByteBuffer bytes, int from, int to, byte[] key) {
+        if (to - from != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (bytes.get(from + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String titleAt(int movie) {
+        return decode(titleBytes, titleStart.get(movie), titleStart.get(movie + 1));
+    }
+
+    public String movieIdAt(int movie) {
+        return decode(idBytes, idStart.get(movie), idStart.get(movie + 1));
+    }
+
+    private static String decode(ByteBuffer bytes, int from, int to) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] copy = new byte[to - from];
+        ByteBuffer view = bytes.duplicate();
+        view.position(from);
+        view.get(copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    public String genreName(int genre) {
+        return genreNames[genre];
+    }
+
+    String[] genreNames() {
+        return genreNames;
+    }
+
+    int idRank(int movie) {
+        return idRank.get(movie);
+    }
+
+    // The movie's genres are genreAt(genreStart(movie)..genreStart(movie + 1) - 1),
+    // each listed once
+    int genreStart(int movie) {
+        return genreStart.get(movie);
+    }
+
+    int genreAt(int at) {
+        return genres.get(at);
+    }
+
+    // The genre's movies are postingAt(postingStart(genre)..postingStart(genre + 1) - 1),
+    // in catalog order
+    int postingStart(int genre) {
+        return postingStart.get(genre);
+    }
+
+    int postingAt(int at) {
+        return postings.get(at);
+    }
+
+    // The arrays in snapshot order, each a view from 0 to its capacity
+    Buffer[] sections() {
+        return new Buffer[]{titleBytes, titleStart, idBytes, idStart, idTable, idRank,
+                genres, genreStart, postings, postingStart};
+    }
+
+    // Bytes held by the arrays, headers included, plus the genre names. For a
+    // catalog opened from a snapshot the arrays live in the mapped file.
+    public long footprintBytes() {
+        long bytes = arrayBytes(genreNames.length, 4);
+        for (Buffer section : sections()) {
+            bytes += arrayBytes(section.capacity(), elementBytes(section));
+        }
+        for (String name : genreNames) {
+            // String header and fields, plus its Latin-1 or UTF-16 value array
+            bytes += 24 + arrayBytes(name.length() * 2L, 1);
+        }
+        return bytes;
+    }
+
+    static int elementBytes(Buffer section) {
+        if (section instanceof ByteBuffer) {
+            return 1;
+        }
+        return section instanceof ShortBuffer ? 2 : 4;
+    }
+
+    // 16-byte header, rounded up to the 8-byte object alignment
+    private static long arrayBytes(long length, int elementBytes) {
+        return (16 + length * elementBytes + 7) & ~7L;
+    }
+}
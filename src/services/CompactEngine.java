@@ -0,0 +1,191 @@
+package services;
+
+import models.User;
+import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Answers from a CompactCatalog with the same results as the indexed
+// RecommendationEngine. The catalog never changes, so it needs no locks.
+public class CompactEngine implements Recommender {
+    private final CompactCatalog catalog;
+    private final PipelineMetrics metrics;
+
+    public CompactEngine(CompactCatalog catalog) {
+        this(catalog, PipelineMetrics.DISABLED);
+    }
+
+    public CompactEngine(CompactCatalog catalog, PipelineMetrics metrics) {
+        this.catalog = catalog;
+        this.metrics = metrics;
+    }
+
+    public CompactCatalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public UserRecommendation generateRecommendations(User user) {
+        long start = metrics.startTimer();
+        int[] liked = likedMovies(user);
+        BitSet candidates = candidatesFor(liked, likedGenres(liked));
+
+        List<String> titles = new ArrayList<>(candidates.cardinality());
+        for (int movie = candidates.nextSetBit(0); movie >= 0; movie = candidates.nextSetBit(movie + 1)) {
+            titles.add(catalog.titleAt(movie));
+        }
+
+        metrics.recordRecommendation(start, titles.size());
+        return new UserRecommendation(user.getName(), user.getId(), titles);
+    }
+
+    @Override
+    public UserRecommendation generateTopK(User user, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        long start = metrics.startTimer();
+        int[] liked = likedMovies(user);
+        BitSet likedGenres = likedGenres(liked);
+        BitSet candidates = candidatesFor(liked, likedGenres);
+
+        // Min-heap of the best k so far: the weakest kept movie sits on top
+        long[] heap = new long[Math.min(k, candidates.cardinality())];
+        int[] heapMovies = new int[heap.length];
+        int size = 0;
+        for (int movie = candidates.nextSetBit(0); movie >= 0; movie = candidates.nextSetBit(movie + 1)) {
+            int from = catalog.genreStart(movie);
+            int to = catalog.genreStart(movie + 1);
+
+            int genreMatches = 0;
+            for (int at = from; at < to; at++) {
+                if (likedGenres.get(catalog.genreAt(at))) {
+                    genreMatches++;
+                }
+            }
+            int likedMatches = 0;
+            for (int likedMovie : liked) {
+                if (sharesGenre(from, to, catalog.genreStart(likedMovie), catalog.genreStart(likedMovie + 1))) {
+                    likedMatches++;
+                }
+            }
+
+            long score = ((long) genreMatches << 32) | likedMatches;
+            if (size < heap.length) {
+                heap[size] = score;
+                heapMovies[size] = movie;
+                siftUp(heap, heapMovies, size++);
+            } else if (stronger(score, movie, heap[0], heapMovies[0])) {
+                heap[0] = score;
+                heapMovies[0] = movie;
+                siftDown(heap, heapMovies, size);
+            }
+        }
+
+        // Popping the weakest first fills the list from the back
+        String[] titles = new String[size];
+        for (int i = size - 1; i >= 0; i--) {
+            titles[i] = catalog.titleAt(heapMovies[0]);
+            heap[0] = heap[i];
+            heapMovies[0] = heapMovies[i];
+            siftDown(heap, heapMovies, i);
+        }
+
+        metrics.recordRecommendation(start, candidates.cardinality());
+        return new UserRecommendation(user.getName(), user.getId(), Arrays.asList(titles));
+    }
+
+    // Distinct known liked movies, in catalog order
+    private int[] likedMovies(User user) {
+        BitSet liked = new BitSet(catalog.movieCount());
+        for (String movieId : user.getLikedMovieIds()) {
+            int movie = catalog.indexOfMovie(movieId);
+            if (movie >= 0) {
+                liked.set(movie);
+            }
+        }
+        return liked.stream().toArray();
+    }
+
+    private BitSet likedGenres(int[] liked) {
+        BitSet likedGenres = new BitSet(catalog.genreCount());
+        for (int movie : liked) {
+            for (int at = catalog.genreStart(movie); at < catalog.genreStart(movie + 1); at++) {
+                likedGenres.set(catalog.genreAt(at));
+            }
+        }
+        return likedGenres;
+    }
+
+    private BitSet candidatesFor(int[] liked, BitSet likedGenres) {
+        BitSet candidates = new BitSet(catalog.movieCount());
+        for (int genre = likedGenres.nextSetBit(0); genre >= 0; genre = likedGenres.nextSetBit(genre + 1)) {
+            for (int at = catalog.postingStart(genre); at < catalog.postingStart(genre + 1); at++) {
+                candidates.set(catalog.postingAt(at));
+            }
+        }
+        for (int movie : liked) {
+            candidates.clear(movie);
+        }
+        return candidates;
+    }
+
+    private boolean sharesGenre(int from, int to, int otherFrom, int otherTo) {
+        for (int at = from; at < to; at++) {
+            for (int other = otherFrom; other < otherTo; other++) {
+                if (catalog.genreAt(at) == catalog.genreAt(other)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Higher score wins; on equal scores the smaller movie ID does
+    private boolean stronger(long score, int movie, long otherScore, int otherMovie) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        return catalog.idRank(movie) < catalog.idRank(otherMovie);
+    }
+
+    private void siftUp(long[] heap, int[] movies, int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!stronger(heap[parent], movies[parent], heap[at], movies[at])) {
+                break;
+            }
+            swap(heap, movies, at, parent);
+            at = parent;
+        }
+    }
+
+    private void siftDown(long[] heap, int[] movies, int size) {
+        int at = 0;
+        while (true) {
+            int weakest = at;
+            for (int child = 2 * at + 1; child <= 2 * at + 2 && child < size; child++) {
+                if (stronger(heap[weakest], movies[weakest], heap[child], movies[child])) {
+                    weakest = child;
+                }
+            }
+            if (weakest == at) {
+                return;
+            }
+            swap(heap, movies, at, weakest);
+            at = weakest;
+        }
+    }
+
+    private static void swap(long[] heap, int[] movies, int a, int b) {
+        long score = heap[a];
+        heap[a] = heap[b];
+        heap[b] = score;
+        int movie = movies[a];
+        movies[a] = movies[b];
+        movies[b] = movie;
+    }
+}
@@ -0,0 +1,277 @@
+package services;
+
+import models.Movie;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GenreIndex {
+    private Map<String, Integer> movieIndex;
+    private Map<String, Integer> genreIndex;
+    private Slots<String> movieIds;
+    private Slots<String> titles;
+    private Slots<int[]> movieGenres;
+    private Slots<BitSet> genrePostings;
+    // Slots of removed movies, handed out again before the slots grow
+    private int[] freeSlots = new int[0];
+    private int freeCount;
+    // Catalog position of the movie in each slot. Equal to the slot until a
+    // slot is reused; the new movie then takes the next position, so it is
+    // listed after the rest as the map engine lists it.
+    private Slots<Integer> positions;
+    private int nextPosition;
+    // Bumped before a reused slot takes its new ID, position and title; see
+    // reuseStamp
+    private volatile int reuseCount;
+
+    public GenreIndex(List<Movie> movies) {
+        this.movieIndex = new ConcurrentHashMap<>();
+        this.genreIndex = new ConcurrentHashMap<>();
+        this.movieIds = new Slots<>();
+        this.titles = new Slots<>();
+        this.movieGenres = new Slots<>();
+        this.genrePostings = new Slots<>();
+        this.positions = new Slots<>();
+
+        for (Movie movie : movies) {
+            // A repeated ID keeps its first slot but takes the latest title and
+            // genres, mirroring how movieById.put overwrites in the map engine
+            Integer index = movieIndex.get(movie.getId());
+            if (index == null) {
+                index = movieIds.add(movie.getId());
+                movieIndex.put(movie.getId(), index);
+                titles.add(movie.getTitle());
+                movieGenres.add(null);
+                positions.add(nextPosition++);
+            }
+            titles.set(index, movie.getTitle());
+
+            int[] genres = new int[movie.getGenres().size()];
+            for (int i = 0; i < genres.length; i++) {
+                genres[i] = internGenre(movie.getGenres().get(i));
+                genrePostings.get(genres[i]).set(index);
+            }
+            movieGenres.set(index, genres);
+        }
+    }
+
+    private int internGenre(String genre) {
+        Integer index = genreIndex.get(genre);
+        if (index == null) {
+            index = genrePostings.add(new BitSet());
+            genreIndex.put(genre, index);
+        }
+        return index;
+    }
+
+    // After construction postings are copy-on-write: a changed posting is
+    // copied, edited and swapped in, so a reader holding the old one never
+    // sees it change. Callers must not run two writes at once.
+    void putMovie(Movie movie) {
+        Integer index = movieIndex.get(movie.getId());
+        int[] previous = null;
+        if (index == null && freeCount > 0) {
+            index = freeSlots[--freeCount];
+            reuseCount++;
+            movieIds.set(index, movie.getId());
+            positions.set(index, nextPosition++);
+        } else if (index == null) {
+            index = movieIds.add(movie.getId());
+            titles.add(movie.getTitle());
+            movieGenres.add(new int[0]);
+            positions.add(nextPosition++);
+        } else {
+            previous = movieGenres.get(index);
+        }
+
+        // The title goes in before any posting leads to the slot, so a read
+        // that finds the slot under a new genre never gets the old title
+        titles.set(index, movie.getTitle());
+        int[] genres = new int[movie.getGenres().size()];
+        for (int i = 0; i < genres.length; i++) {
+            genres[i] = internGenre(movie.getGenres().get(i));
+            updatePosting(genres[i], index, true);
+        }
+        movieGenres.set(index, genres);
+
+        if (previous != null) {
+            for (int genre : previous) {
+                if (!contains(genres, genre)) {
+                    updatePosting(genre, index, false);
+                }
+            }
+        }
+
+        // Published last, so a reader that finds the ID finds its genres too
+        movieIndex.put(movie.getId(), index);
+    }
+
+    // The slot leaves every posting, the ID no longer resolves and the slot
+    // goes on the free list for the next new movie. Its ID and title stay
+    // until then, so a read that reaches it through an older posting still
+    // finds the removed movie; one that races a later reuse can tell from
+    // reuseStamp.
+    boolean removeMovie(String movieId) {
+        Integer index = movieIndex.remove(movieId);
+        if (index == null) {
+            return false;
+        }
+
+        for (int genre : movieGenres.get(index)) {
+            updatePosting(genre, index, false);
+        }
+        movieGenres.set(index, new int[0]);
+
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+        }
+        freeSlots[freeCount++] = index;
+        return true;
+    }
+
+    private void updatePosting(int genre, int movie, boolean present) {
+        BitSet posting = genrePostings.get(genre);
+        if (posting.get(movie) == present) {
+            return;
+        }
+
+        BitSet copy = (BitSet) posting.clone();
+        copy.set(movie, present);
+        genrePostings.set(genre, copy);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Live movies only; slots waiting on the free list are not counted
+    // Changes whenever a slot is reused. A read that takes the stamp before
+    // touching postings and finds it unchanged after reading titles saw no
+    // slot change hands; otherwise it may hold a newcomer's title under the
+    // removed movie's genres and should read again.
+    public int reuseStamp() {
+        return reuseCount;
+    }
+
+    public int movieCount() {
+        return movieIndex.size();
+    }
+
+    // Highest slot in use plus one, the bit range of every posting
+    public int slotCount() {
+        return movieIds.size();
+    }
+
+    public int genreCount() {
+        return genrePostings.size();
+    }
+
+    public int indexOfMovie(String movieId) {
+        Integer index = movieIndex.get(movieId);
+        return index == null ? -1 : index;
+    }
+
+    public int indexOfGenre(String genre) {
+        Integer index = genreIndex.get(genre);
+        return index == null ? -1 : index;
+    }
+
+    public String movieIdAt(int index) {
+        return movieIds.get(index);
+    }
+
+    public String titleAt(int index) {
+        return titles.get(index);
+    }
+
+    public int[] genresOf(int index) {
+        return movieGenres.get(index);
+    }
+
+    public BitSet postingOf(int genre) {
+        return genrePostings.get(genre);
+    }
+
+    public BitSet candidatesFor(List<String> likedMovieIds) {
+        BitSet candidates = new BitSet(slotCount());
+        BitSet liked = new BitSet(slotCount());
+
+        for (String likedMovieId : likedMovieIds) {
+            int index = indexOfMovie(likedMovieId);
+            if (index < 0) continue;
+
+            liked.set(index);
+            for (int genre : movieGenres.get(index)) {
+                candidates.or(genrePostings.get(genre));
+            }
+        }
+
+        candidates.andNot(liked);
+        return candidates;
+    }
+
+    // Distinct genres of the known movies among movieIds, sorted, which makes
+    // the result a canonical key for the union of their postings
+    public int[] genresOfMovies(List<String> movieIds) {
+        BitSet genres = new BitSet(genreCount());
+        for (String movieId : movieIds) {
+            int index = indexOfMovie(movieId);
+            if (index < 0) continue;
+
+            for (int genre : movieGenres.get(index)) {
+                genres.set(genre);
+            }
+        }
+        return genres.stream().toArray();
+    }
+
+    public BitSet unionOf(int[] genres) {
+        BitSet union = new BitSet(slotCount());
+        for (int genre : genres) {
+            union.or(genrePostings.get(genre));
+        }
+        return union;
+    }
+
+    public BitSet slotsOf(List<String> movieIds) {
+        BitSet slots = new BitSet(slotCount());
+        for (String movieId : movieIds) {
+            int index = indexOfMovie(movieId);
+            if (index >= 0) {
+                slots.set(index);
+            }
+        }
+        return slots;
+    }
+
+    // Titles in catalog order: slot order, unless a reused slot holds a
+    // movie added after the others
+    public List<String> titlesOf(BitSet candidates) {
+        List<String> result = new ArrayList<>(candidates.cardinality());
+        if (reuseCount == 0) {
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                result.add(titles.get(i));
+            }
+            return result;
+        }
+
+        long[] order = new long[candidates.cardinality()];
+        int n = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            order[n++] = (long) positions.get(i) << 32 | i;
+        }
+        Arrays.sort(order);
+        for (long entry : order) {
+            result.add(titles.get((int) entry));
+        }
+        return result;
+    }
+}
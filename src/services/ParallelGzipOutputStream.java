@@ -0,0 +1,144 @@
+package services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+// Gzip output compressed on several threads, in the manner of pigz. Bytes are
+// cut into fixed-size blocks and each block becomes a complete gzip member of
+// its own; members are written in block order. A gzip file may hold any
+// number of members, so GZIPInputStream and gunzip read the result as one
+// stream. Each block starts with an empty dictionary, which costs a little
+// ratio for the parallelism.
+//
+// At most two blocks per thread are in flight, so memory stays bounded however
+// much is written. The pool belongs to the stream and stops on close.
+public class ParallelGzipOutputStream extends OutputStream {
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 18;
+
+    private final OutputStream out;
+    private final ExecutorService pool;
+    private final int blockSize;
+    private final int maxPending;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int length;
+    private boolean anyBlock;
+    private boolean closed;
+
+    public ParallelGzipOutputStream(OutputStream out, int threads) {
+        this(out, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    public ParallelGzipOutputStream(OutputStream out, int threads, int blockSize) {
+        if (threads < 1 || blockSize < 1) {
+            throw new IllegalArgumentException("threads and blockSize must be positive: "
+                    + threads + ", " + blockSize);
+        }
+        this.out = out;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.blockSize = blockSize;
+        this.maxPending = threads * 2;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == blockSize) {
+            submitBlock();
+        }
+        block[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == blockSize) {
+                submitBlock();
+            }
+            int chunk = Math.min(count, blockSize - length);
+            System.arraycopy(bytes, offset, block, length, chunk);
+            length += chunk;
+            offset += chunk;
+            count -= chunk;
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = block;
+        int size = length;
+        pending.add(pool.submit(() -> compress(data, size)));
+        anyBlock = true;
+        block = new byte[blockSize];
+        length = 0;
+
+        if (pending.size() >= maxPending) {
+            out.write(await(pending.poll()));
+        }
+    }
+
+    private static byte[] compress(byte[] data, int size) throws IOException {
+        ByteArrayOutputStream member = new ByteArrayOutputStream(size / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+            gzip.write(data, 0, size);
+        }
+        return member.toByteArray();
+    }
+
+    // Writes out members that are already compressed. The partial block is
+    // kept: flushing it would cut a member short and cost ratio.
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            out.write(await(pending.poll()));
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            // An empty stream still gets one member, so it reads back as empty
+            // rather than as a truncated gzip file
+            if (length > 0 || !anyBlock) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                out.write(await(pending.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+            out.close();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -3,23 +3,77 @@ package services;
 import models.Movie;
 import models.User;
 import models.UserRecommendation;
+import metrics.PipelineMetrics;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.TreeSet;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class RecommendationEngine {
-    private Map<String, Movie> movieById;
-    private Map<String, Set<String>> genreToMovieIds;
+// Shared by any number of threads; reads never lock. Writers run one at a
+// time and swap in an edited copy of each posting they touch.
+public class RecommendationEngine implements Recommender {
+    private final Map<String, Movie> movieById;
+    private final Map<String, Set<String>> genreToMovieIds;
+    // Catalog position of each movie in the map mode, so titles come out in
+    // catalog order as they do from the index. New IDs go to the end.
+    private final Map<String, Integer> positionById;
+    private int nextPosition;
+    private final GenreIndex genreIndex;
+    private final PipelineMetrics metrics;
+    private final Object writeLock = new Object();
+    private final CandidateCache<Set<String>> genreUnions;
+    private final CandidateCache<BitSet> postingUnions;
 
     public RecommendationEngine(List<Movie> movies) {
-        this.movieById = new HashMap<>();
-        this.genreToMovieIds = new HashMap<>();
+        this(movies, false);
+    }
+
+    public RecommendationEngine(List<Movie> movies, boolean useGenreIndex) {
+        this(movies, useGenreIndex, PipelineMetrics.DISABLED);
+    }
+
+    // The indexed mode interns IDs and genres to ints and answers from bitset
+    // postings; it recommends the same titles, and both modes list them in
+    // catalog order, movies added later after the rest. Every
+    // recommendation reports its latency and candidate count to metrics.
+    public RecommendationEngine(List<Movie> movies, boolean useGenreIndex, PipelineMetrics metrics) {
+        this(movies, useGenreIndex, metrics, 0);
+    }
+
+    // With candidateCacheSize above 0, the union of candidates for each
+    // distinct set of liked genres is kept for reuse by later users with the
+    // same genres; up to that many sets are kept, least recently used first
+    // out. Recommendations are identical with or without the cache.
+    public RecommendationEngine(List<Movie> movies, boolean useGenreIndex, PipelineMetrics metrics,
+                                int candidateCacheSize) {
+        if (candidateCacheSize < 0) {
+            throw new IllegalArgumentException("candidateCacheSize must not be negative: " + candidateCacheSize);
+        }
+        this.metrics = metrics;
+        this.genreUnions = candidateCacheSize > 0 && !useGenreIndex
+                ? new CandidateCache<>(candidateCacheSize) : null;
+        this.postingUnions = candidateCacheSize > 0 && useGenreIndex
+                ? new CandidateCache<>(candidateCacheSize) : null;
+        Map<String, Movie> movieById = new HashMap<>();
+        Map<String, Set<String>> genreToMovieIds = new HashMap<>();
+        Map<String, Integer> positionById = new HashMap<>();
 
         for (Movie movie : movies) {
             movieById.put(movie.getId(), movie);
+            if (useGenreIndex) continue;
+
+            // A repeated ID keeps its first position, as it keeps its slot
+            if (!positionById.containsKey(movie.getId())) {
+                positionById.put(movie.getId(), nextPosition++);
+            }
 
             for (String genre : movie.getGenres()) {
                 genreToMovieIds
@@ -27,34 +81,344 @@ public class RecommendationEngine {
                         .add(movie.getId());
             }
         }
+
+        this.movieById = new ConcurrentHashMap<>(movieById);
+        this.genreToMovieIds = new ConcurrentHashMap<>(genreToMovieIds);
+        this.positionById = new ConcurrentHashMap<>(positionById);
+        this.genreIndex = useGenreIndex ? new GenreIndex(movies) : null;
     }
 
-    public UserRecommendation generateRecommendations(User user) {
-        Set<String> recommendedIds = new HashSet<>();
-        Set<String> likedIds = new HashSet<>(user.getLikedMovieIds());
+    public boolean isIndexed() {
+        return genreIndex != null;
+    }
 
-        for (String likedMovieId : user.getLikedMovieIds()) {
-            Movie likedMovie = movieById.get(likedMovieId);
-            if (likedMovie == null) continue;
+    public long getCandidateCacheHits() {
+        CandidateCache<?> cache = genreUnions != null ? genreUnions : postingUnions;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    public long getCandidateCacheMisses() {
+        CandidateCache<?> cache = genreUnions != null ? genreUnions : postingUnions;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    // Adds the movie, or replaces the title and genres of the movie with the
+    // same ID. Only the postings of the genres involved are copied.
+    public void addMovie(Movie movie) {
+        synchronized (writeLock) {
+            // The movie is visible by ID before any posting can lead to it
+            Movie previous = movieById.put(movie.getId(), movie);
 
-            for (String genre : likedMovie.getGenres()) {
-                Set<String> moviesInGenre = genreToMovieIds.get(genre);
-                if (moviesInGenre != null) {
-                    recommendedIds.addAll(moviesInGenre);
+            if (genreIndex != null) {
+                genreIndex.putMovie(movie);
+            } else {
+                if (previous == null) {
+                    positionById.put(movie.getId(), nextPosition++);
+                }
+                for (String genre : movie.getGenres()) {
+                    updatePosting(genre, movie.getId(), true);
+                }
+                if (previous != null) {
+                    for (String genre : previous.getGenres()) {
+                        if (!movie.getGenres().contains(genre)) {
+                            updatePosting(genre, movie.getId(), false);
+                        }
+                    }
                 }
             }
+            invalidateCandidateCache();
         }
+    }
 
-        recommendedIds.removeAll(likedIds);
+    // Returns false when no movie has the ID
+    public boolean removeMovie(String movieId) {
+        synchronized (writeLock) {
+            Movie movie = movieById.get(movieId);
+            if (movie == null) {
+                return false;
+            }
 
-        List<String> recommendedTitles = new ArrayList<>();
+            // Leaves the postings first; a read that still reaches the ID
+            // through an older posting skips it once it is gone from movieById
+            if (genreIndex != null) {
+                genreIndex.removeMovie(movieId);
+            } else {
+                for (String genre : movie.getGenres()) {
+                    updatePosting(genre, movieId, false);
+                }
+            }
+            movieById.remove(movieId);
+            positionById.remove(movieId);
+            invalidateCandidateCache();
+            return true;
+        }
+    }
+
+    // Returns false when no movie has the ID
+    public boolean updateGenres(String movieId, List<String> genres) {
+        synchronized (writeLock) {
+            Movie movie = movieById.get(movieId);
+            if (movie == null) {
+                return false;
+            }
+            addMovie(new Movie(movie.getTitle(), movieId, genres));
+            return true;
+        }
+    }
+
+    private void invalidateCandidateCache() {
+        if (genreUnions != null) {
+            genreUnions.invalidateAll();
+        }
+        if (postingUnions != null) {
+            postingUnions.invalidateAll();
+        }
+    }
+
+    private void updatePosting(String genre, String movieId, boolean present) {
+        Set<String> posting = genreToMovieIds.get(genre);
+        if (posting != null && posting.contains(movieId) == present) {
+            return;
+        }
+        if (posting == null && !present) {
+            return;
+        }
+
+        Set<String> copy = posting == null ? new HashSet<>() : new HashSet<>(posting);
+        if (present) {
+            copy.add(movieId);
+        } else {
+            copy.remove(movieId);
+        }
+
+        if (copy.isEmpty()) {
+            genreToMovieIds.remove(genre);
+        } else {
+            genreToMovieIds.put(genre, copy);
+        }
+    }
+
+    @Override
+    public UserRecommendation generateRecommendations(User user) {
+        long start = metrics.startTimer();
+        if (genreIndex != null) {
+            // Reads again if a slot was reused meanwhile; removals invalidate
+            // the candidate cache first, so the second read sees no stale
+            // union either
+            List<String> titles;
+            int stamp;
+            do {
+                stamp = genreIndex.reuseStamp();
+                titles = genreIndex.titlesOf(indexedCandidates(user));
+            } while (stamp != genreIndex.reuseStamp());
+            metrics.recordRecommendation(start, titles.size());
+            return new UserRecommendation(user.getName(), user.getId(), titles);
+        }
+
+        List<String> recommendedIds = candidateIds(user);
+
+        List<Movie> recommended = new ArrayList<>(recommendedIds.size());
         for (String movieId : recommendedIds) {
             Movie movie = movieById.get(movieId);
             if (movie != null) {
-                recommendedTitles.add(movie.getTitle());
+                recommended.add(movie);
             }
         }
+        List<String> recommendedTitles = inCatalogOrder(recommended);
 
+        metrics.recordRecommendation(start, recommendedIds.size());
         return new UserRecommendation(user.getName(), user.getId(), recommendedTitles);
     }
-}
\ No newline at end of file
+
+    // Sorts on position and list index packed into one long, so the sort
+    // needs no boxing or map lookups. A movie removed meanwhile goes last.
+    private List<String> inCatalogOrder(List<Movie> movies) {
+        long[] order = new long[movies.size()];
+        for (int i = 0; i < order.length; i++) {
+            long position = positionById.getOrDefault(movies.get(i).getId(), Integer.MAX_VALUE);
+            order[i] = position << 32 | i;
+        }
+        Arrays.sort(order);
+
+        List<String> titles = new ArrayList<>(order.length);
+        for (long entry : order) {
+            titles.add(movies.get((int) entry).getTitle());
+        }
+        return titles;
+    }
+
+    @Override
+    public UserRecommendation generateTopK(User user, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        long start = metrics.startTimer();
+
+        Set<String> likedGenres = new HashSet<>();
+        List<Set<String>> likedGenreSets = new ArrayList<>();
+        Set<String> seenLikedIds = new HashSet<>();
+        for (String likedMovieId : user.getLikedMovieIds()) {
+            Movie likedMovie = movieById.get(likedMovieId);
+            if (likedMovie == null || !seenLikedIds.add(likedMovieId)) continue;
+
+            Set<String> genres = new HashSet<>(likedMovie.getGenres());
+            likedGenreSets.add(genres);
+            likedGenres.addAll(genres);
+        }
+
+        // Min-heap of the best k so far: the weakest kept movie sits on top
+        PriorityQueue<ScoredMovie> best = new PriorityQueue<>(k + 1, WEAKEST_FIRST);
+        int candidates = 0;
+        for (String movieId : candidateMovieIds(user)) {
+            Movie movie = movieById.get(movieId);
+            if (movie == null) continue;
+
+            candidates++;
+            ScoredMovie scored = score(movie, likedGenres, likedGenreSets);
+            if (best.size() < k) {
+                best.add(scored);
+            } else if (WEAKEST_FIRST.compare(scored, best.peek()) > 0) {
+                best.poll();
+                best.add(scored);
+            }
+        }
+
+        List<ScoredMovie> ranked = new ArrayList<>(best);
+        ranked.sort(WEAKEST_FIRST.reversed());
+
+        List<String> recommendedTitles = new ArrayList<>(ranked.size());
+        for (ScoredMovie scored : ranked) {
+            recommendedTitles.add(scored.movie.getTitle());
+        }
+
+        metrics.recordRecommendation(start, candidates);
+        return new UserRecommendation(user.getName(), user.getId(), recommendedTitles);
+    }
+
+    // Candidates are the union of the movies in every liked genre, minus the
+    // liked movies, listed in the union's iteration order. The union depends
+    // only on the sorted genre set, so a cached union yields the same set.
+    private List<String> candidateIds(User user) {
+        Set<String> likedIds = new HashSet<>(user.getLikedMovieIds());
+        Set<String> genres = new TreeSet<>();
+
+        for (String likedMovieId : user.getLikedMovieIds()) {
+            Movie likedMovie = movieById.get(likedMovieId);
+            if (likedMovie == null) continue;
+
+            genres.addAll(likedMovie.getGenres());
+        }
+
+        Set<String> union = genreUnion(genres);
+        List<String> recommendedIds = new ArrayList<>(union.size());
+        for (String movieId : union) {
+            if (!likedIds.contains(movieId)) {
+                recommendedIds.add(movieId);
+            }
+        }
+        return recommendedIds;
+    }
+
+    private Set<String> genreUnion(Set<String> genres) {
+        if (genreUnions == null || genres.isEmpty()) {
+            return buildGenreUnion(genres);
+        }
+
+        // Joined with NUL, which no genre in a text movies file contains
+        String key = String.join("\u0000", genres);
+        Set<String> union = genreUnions.get(key);
+        metrics.recordCandidateCacheLookup(union != null);
+        if (union == null) {
+            long generation = genreUnions.generation();
+            union = buildGenreUnion(genres);
+            genreUnions.put(key, union, generation);
+        }
+        return union;
+    }
+
+    private Set<String> buildGenreUnion(Set<String> genres) {
+        Set<String> union = new HashSet<>();
+        for (String genre : genres) {
+            Set<String> moviesInGenre = genreToMovieIds.get(genre);
+            if (moviesInGenre != null) {
+                union.addAll(moviesInGenre);
+            }
+        }
+        return union;
+    }
+
+    private BitSet indexedCandidates(User user) {
+        if (postingUnions == null) {
+            return genreIndex.candidatesFor(user.getLikedMovieIds());
+        }
+
+        int[] genres = genreIndex.genresOfMovies(user.getLikedMovieIds());
+        String key = Arrays.toString(genres);
+        BitSet union = postingUnions.get(key);
+        metrics.recordCandidateCacheLookup(union != null);
+        if (union == null) {
+            long generation = postingUnions.generation();
+            union = genreIndex.unionOf(genres);
+            postingUnions.put(key, union, generation);
+        }
+
+        BitSet candidates = (BitSet) union.clone();
+        candidates.andNot(genreIndex.slotsOf(user.getLikedMovieIds()));
+        return candidates;
+    }
+
+    private Iterable<String> candidateMovieIds(User user) {
+        if (genreIndex == null) {
+            return candidateIds(user);
+        }
+
+        BitSet candidates = indexedCandidates(user);
+        List<String> ids = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ids.add(genreIndex.movieIdAt(i));
+        }
+        return ids;
+    }
+
+    private static ScoredMovie score(Movie movie, Set<String> likedGenres,
+                                     List<Set<String>> likedGenreSets) {
+        List<String> genres = movie.getGenres();
+
+        int genreMatches = 0;
+        for (int i = 0; i < genres.size(); i++) {
+            String genre = genres.get(i);
+            if (genres.indexOf(genre) == i && likedGenres.contains(genre)) {
+                genreMatches++;
+            }
+        }
+
+        int likedMatches = 0;
+        for (Set<String> likedMovieGenres : likedGenreSets) {
+            for (String genre : genres) {
+                if (likedMovieGenres.contains(genre)) {
+                    likedMatches++;
+                    break;
+                }
+            }
+        }
+
+        return new ScoredMovie(movie, genreMatches, likedMatches);
+    }
+
+    private static final Comparator<ScoredMovie> WEAKEST_FIRST =
+            Comparator.<ScoredMovie>comparingInt(scored -> scored.genreMatches)
+                    .thenComparingInt(scored -> scored.likedMatches)
+                    .thenComparing(scored -> scored.movie.getId(), Comparator.reverseOrder());
+
+    private static class ScoredMovie {
+        private final Movie movie;
+        private final int genreMatches;
+        private final int likedMatches;
+
+        ScoredMovie(Movie movie, int genreMatches, int likedMatches) {
+            this.movie = movie;
+            this.genreMatches = genreMatches;
+            this.likedMatches = likedMatches;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package services;
+
+import models.UserRecommendation;
+import validators.UserIdSet;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// A side index over a recommendations file that finds one user's record
+// without reading the others: an open-addressing hash table saved next to
+// the data file. Layout, big-endian: a 32-byte header (magic, version, data
+// format, slot count, data file size, entry count), then 24-byte slots of
+// key (0 when free), record offset and record length. Keys are IDs packed
+// as in UserIdSet, or hashed with the top bit set when they do not pack.
+public final class RecommendationIndex {
+    public static final String EXTENSION = ".idx";
+    public static final int VERSION = 1;
+    public static final int TEXT = 0;
+    public static final int BINARY = 1;
+
+    private static final int MAGIC = 0x4D524958;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 24;
+    // Files are mapped in chunks of this size, as one mapping stops at 2 GB
+    static final int CHUNK_BYTES = 1 << 30;
+    // The slot count is a power of two that fits the int in the header
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final Mapping data;
+    private final Mapping index;
+    private final int slotCount;
+    private final int entries;
+    private final int format;
+    // Holds the title table of a binary data file
+    private final BinaryRecommendationReader binary;
+
+    private RecommendationIndex(Path dataFile, Path indexFile, Mapping data, Mapping index,
+                                int slotCount, int entries, int format, BinaryRecommendationReader binary) {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.data = data;
+        this.index = index;
+        this.slotCount = slotCount;
+        this.entries = entries;
+        this.format = format;
+        this.binary = binary;
+    }
+
+    public static Path indexFileFor(String dataFile) {
+        return Paths.get(dataFile + EXTENSION);
+    }
+
+    static long keyOf(String userId) {
+        long packed = UserIdSet.pack(userId);
+        if (packed >= 0) {
+            return packed;
+        }
+        // 64-bit FNV-1a
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < userId.length(); i++) {
+            hash = (hash ^ userId.charAt(i)) * 0x100000001B3L;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+
+    private static int home(long key, int mask) {
+        // Fibonacci hashing, as in UserIdSet
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> Long.numberOfLeadingZeros(mask));
+    }
+
+    public static RecommendationIndex open(Path dataFile, Path indexFile) throws IOException {
+        return open(dataFile, indexFile, CHUNK_BYTES);
+    }
+
+    // Smaller chunks let tests cover records and slots past the first one
+    static RecommendationIndex open(Path dataFile, Path indexFile, int chunkBytes) throws IOException {
+        Mapping index = Mapping.of(indexFile, chunkBytes);
+        if (index.size() < HEADER_BYTES || index.getInt(0) != MAGIC) {
+            throw corrupt(indexFile, "not a recommendation index");
+        }
+        if (index.getInt(4) != VERSION) {
+            throw corrupt(indexFile, "unsupported version " + index.getInt(4));
+        }
+        int format = index.getInt(8);
+        int slotCount = index.getInt(12);
+        int entries = index.getInt(24);
+        if ((format != TEXT && format != BINARY) || Integer.bitCount(slotCount) != 1
+                || entries < 0 || entries >= slotCount
+                || index.size() != HEADER_BYTES + (long) slotCount * SLOT_BYTES) {
+            throw corrupt(indexFile, "header does not match the file");
+        }
+
+        Mapping data = Mapping.of(dataFile, chunkBytes);
+        if (data.size() != index.getLong(16)) {
+            throw new IOException("Index " + indexFile + " was built for a different " + dataFile);
+        }
+
+        BinaryRecommendationReader binary = null;
+        if (format == BINARY) {
+            // Only the title table is needed from the reader
+            binary = new BinaryRecommendationReader(dataFile);
+            binary.close();
+        }
+
+        return new RecommendationIndex(dataFile, indexFile, data, index, slotCount, entries, format, binary);
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    // null when the user has no record
+    public UserRecommendation lookup(String userId) throws IOException {
+        long key = keyOf(userId);
+        int mask = slotCount - 1;
+        for (int slot = home(key, mask); ; slot = (slot + 1) & mask) {
+            long at = HEADER_BYTES + (long) slot * SLOT_BYTES;
+            long slotKey = index.getLong(at);
+            if (slotKey == 0) {
+                return null;
+            }
+            if (slotKey != key) {
+                continue;
+            }
+
+            long offset = index.getLong(at + 8);
+            int length = index.getInt(at + 16);
+            if (offset < 0 || length < 0 || offset + length > data.size()) {
+                throw corrupt(indexFile, "record outside " + dataFile);
+            }
+            byte[] record = new byte[length];
+            data.get(offset, record);
+
+            UserRecommendation rec = format == BINARY ? binary.decodeRecord(record) : decodeText(record);
+            if (rec.getUserId().equals(userId)) {
+                return rec;
+            }
+        }
+    }
+
+    // The two lines TextRecommendationSink writes for a user. Names cannot
+    // contain commas, so the last one on the first line precedes the ID.
+    private UserRecommendation decodeText(byte[] record) throws IOException {
+        String text = new String(record, StandardCharsets.UTF_8);
+        int firstEnd = text.indexOf('\n');
+        int comma = firstEnd < 0 ? -1 : text.lastIndexOf(',', firstEnd);
+        if (comma < 0) {
+            throw corrupt(indexFile, "no user record at the offset in " + dataFile);
+        }
+
+        String name = text.substring(0, comma);
+        String id = withoutLineEnd(text.substring(comma + 1, firstEnd));
+        String titles = withoutLineEnd(text.substring(firstEnd + 1));
+        List<String> recommended = titles.isEmpty()
+                ? Collections.emptyList()
+                : Arrays.asList(titles.split(",", -1));
+        return new UserRecommendation(name, id, recommended);
+    }
+
+    private static String withoutLineEnd(String line) {
+        if (line.endsWith("\n")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    private static IOException corrupt(Path file, String reason) {
+        return new IOException("Corrupt recommendation index " + file + ": " + reason);
+    }
+
+    // Size of the index file for this many entries, up to 2^29 users
+    static long indexBytes(int entries) throws IOException {
+        // At most half full, so probes stay short
+        long slotCount = 2;
+        while (slotCount <= entries * 2L) {
+            slotCount <<= 1;
+        }
+        if (slotCount > MAX_SLOTS) {
+            throw new IOException("An index of " + entries + " users is too large");
+        }
+        return HEADER_BYTES + slotCount * SLOT_BYTES;
+    }
+
+    // A read-only file mapped in chunks and addressed with long offsets.
+    // Chunks are a multiple of 8 bytes, so the header fields and the 8-byte
+    // aligned slot fields never cross from one chunk into the next.
+    static final class Mapping {
+        private final ByteBuffer[] chunks;
+        private final int chunkBytes;
+        private final long size;
+
+        private Mapping(ByteBuffer[] chunks, int chunkBytes, long size) {
+            this.chunks = chunks;
+            this.chunkBytes = chunkBytes;
+            this.size = size;
+        }
+
+        static Mapping of(Path file, int chunkBytes) throws IOException {
+            if (chunkBytes < HEADER_BYTES || chunkBytes % 8 != 0) {
+                throw new IllegalArgumentException("Chunk size must be a multiple of 8 of at least "
+                        + HEADER_BYTES + " bytes");
+            }
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = in.size();
+                ByteBuffer[] chunks = new ByteBuffer[(int) ((size + chunkBytes - 1) / chunkBytes)];
+                for (int i = 0; i < chunks.length; i++) {
+                    long from = (long) i * chunkBytes;
+                    // The mappings stay valid after the channel is closed
+                    chunks[i] = in.map(FileChannel.MapMode.READ_ONLY, from, Math.min(chunkBytes, size - from));
+                }
+                return new Mapping(chunks, chunkBytes, size);
+            }
+        }
+
+        long size() {
+            return size;
+        }
+
+        int getInt(long at) {
+            return chunks[(int) (at / chunkBytes)].getInt((int) (at % chunkBytes));
+        }
+
+        long getLong(long at) {
+            return chunks[(int) (at / chunkBytes)].getLong((int) (at % chunkBytes));
+        }
+
+        // Fills bytes from at onwards, across chunks if the range spans them
+        void get(long at, byte[] bytes) {
+            int done = 0;
+            while (done < bytes.length) {
+                ByteBuffer chunk = chunks[(int) ((at + done) / chunkBytes)];
+                int within = (int) ((at + done) % chunkBytes);
+                int n = Math.min(bytes.length - done, chunk.capacity() - within);
+                chunk.get(within, bytes, done, n);
+                done += n;
+            }
+        }
+    }
+
+    // Collects (user ID, offset, length) as a sink writes records, then
+    // writes the index file
+    public static class Builder {
+        private long[] keys = new long[1024];
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private int size;
+
+        public void add(String userId, long offset, int length) {
+            addKey(keyOf(userId), offset, length);
+        }
+
+        private void addKey(long key, long offset, int length) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            keys[size] = key;
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+
+        // Appends other's entries, their offsets moved by base
+        public void addAll(Builder other, long base) {
+            for (int i = 0; i < other.size; i++) {
+                addKey(other.keys[i], base + other.offsets[i], other.lengths[i]);
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Written next to the target and moved into place, as CatalogSnapshot
+        // does, so a reader never maps a half-written index
+        public void write(Path indexFile, long dataSize, int format) throws IOException {
+            int slotCount = (int) ((indexBytes(size) - HEADER_BYTES) / SLOT_BYTES);
+
+            // Entry number + 1 held by each slot, 0 when free; the slots are
+            // then streamed out, so the table never needs one large buffer
+            int[] entryAt = new int[slotCount];
+            int mask = slotCount - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = home(keys[i], mask);
+                while (entryAt[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                entryAt[slot] = i + 1;
+            }
+
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + "."
+                    + ProcessHandle.current().pid() + ".tmp");
+            try {
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                    buffer.putInt(MAGIC).putInt(VERSION).putInt(format).putInt(slotCount)
+                            .putLong(dataSize).putInt(size).putInt(0);
+                    for (int slot = 0; slot < slotCount; slot++) {
+                        if (buffer.remaining() < SLOT_BYTES) {
+                            drain(buffer, out);
+                        }
+                        int i = entryAt[slot] - 1;
+                        if (i < 0) {
+                            buffer.putLong(0).putLong(0).putLong(0);
+                        } else {
+                            buffer.putLong(keys[i]).putLong(offsets[i]).putInt(lengths[i]).putInt(0);
+                        }
+                    }
+                    drain(buffer, out);
+                }
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package services;
+
+import models.UserRecommendation;
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface RecommendationSink extends Closeable {
+    void write(UserRecommendation recommendation) throws IOException;
+}
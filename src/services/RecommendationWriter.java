@@ -4,28 +4,250 @@ import models.UserRecommendation;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class RecommendationWriter {
+    private final int shards;
+    private final boolean keepParts;
+    private final int gzipThreads;
+    private final boolean binary;
+    private final boolean indexed;
+    private final boolean channelOutput;
+
+    public RecommendationWriter() {
+        this(1, false);
+    }
+
+    // With more than one shard, writeRecommendations encodes contiguous slices
+    // of users into part files on that many threads, then joins the parts into
+    // the output file in order. keepParts leaves them next to it afterwards.
+    public RecommendationWriter(int shards, boolean keepParts) {
+        this(shards, keepParts, 0);
+    }
+
+    // gzipThreads above 0 writes gzip, compressed on that many threads by a
+    // ParallelGzipOutputStream. Shards are compressed separately, and joined
+    // gzip files are still one gzip file.
+    public RecommendationWriter(int shards, boolean keepParts, int gzipThreads) {
+        this(shards, keepParts, gzipThreads, false);
+    }
+
+    // binary writes a BinaryRecommendationSink file instead of text. Each such
+    // file carries its own title table, so it cannot be sharded or joined.
+    public RecommendationWriter(int shards, boolean keepParts, int gzipThreads, boolean binary) {
+        this(shards, keepParts, gzipThreads, binary, false);
+    }
+
+    // indexed also writes a RecommendationIndex next to the output file, at
+    // RecommendationIndex.indexFileFor(filename). Text is then written through
+    // a ChannelRecommendationSink, which knows where each user starts; the
+    // file contents are the same. Offsets into compressed output would be
+    // useless, so gzip is not indexed.
+    public RecommendationWriter(int shards, boolean keepParts, int gzipThreads, boolean binary,
+                                boolean indexed) {
+        this(shards, keepParts, gzipThreads, binary, indexed, false);
+    }
+
+    // channelOutput writes plain text through a ChannelRecommendationSink even
+    // without an index. Text is UTF-8 either way, so the bytes are the same.
+    public RecommendationWriter(int shards, boolean keepParts, int gzipThreads, boolean binary,
+                                boolean indexed, boolean channelOutput) {
+        if (shards < 1 || gzipThreads < 0) {
+            throw new IllegalArgumentException("Invalid shards or gzipThreads: " + shards + ", " + gzipThreads);
+        }
+        if (binary && (shards > 1 || gzipThreads > 0)) {
+            throw new IllegalArgumentException("Binary output cannot be sharded or compressed");
+        }
+        if (indexed && gzipThreads > 0) {
+            throw new IllegalArgumentException("Compressed output cannot be indexed");
+        }
+        if (channelOutput && (binary || gzipThreads > 0)) {
+            throw new IllegalArgumentException("Channel output is plain text only");
+        }
+        this.shards = shards;
+        this.keepParts = keepParts;
+        this.gzipThreads = gzipThreads;
+        this.binary = binary;
+        this.indexed = indexed;
+        this.channelOutput = channelOutput;
+    }
 
     public void writeRecommendations(String filename, List<UserRecommendation> recommendations)
             throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+        if (shards > 1) {
+            writeSharded(filename, recommendations);
+            return;
+        }
+        try (RecommendationSink sink = openRecommendations(filename)) {
+            writeAll(sink, recommendations);
+        }
+    }
 
+    private static void writeAll(RecommendationSink sink, List<UserRecommendation> recommendations)
+            throws IOException {
         for (UserRecommendation rec : recommendations) {
-            writer.write(rec.getUserName() + "," + rec.getUserId());
-            writer.newLine();
+            sink.write(rec);
+        }
+    }
 
-            writer.write(String.join(",", rec.getRecommendedMovieTitles()));
-            writer.newLine();
+    // Part i holds the i-th slice of users, so the parts in order are the file
+    public static Path partFile(String filename, int shard) {
+        return Paths.get(String.format("%s.part-%05d", filename, shard));
+    }
+
+    private void writeSharded(String filename, List<UserRecommendation> recommendations)
+            throws IOException {
+        int sliceSize = (recommendations.size() + shards - 1) / shards;
+        List<Path> parts = new ArrayList<>(shards);
+        List<RecommendationIndex.Builder> partIndexes = new ArrayList<>(shards);
+        ExecutorService pool = Executors.newFixedThreadPool(shards);
+        try {
+            List<Future<?>> written = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                Path part = partFile(filename, shard);
+                parts.add(part);
+                int from = Math.min(recommendations.size(), shard * sliceSize);
+                int to = Math.min(recommendations.size(), from + sliceSize);
+                List<UserRecommendation> slice = recommendations.subList(from, to);
+                RecommendationIndex.Builder partIndex = indexed ? new RecommendationIndex.Builder() : null;
+                partIndexes.add(partIndex);
+                written.add(pool.submit(() -> {
+                    try (RecommendationSink sink = openSink(part.toString(), partIndex)) {
+                        writeAll(sink, slice);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : written) {
+                await(future);
+            }
+
+            // transferTo lets the kernel copy the parts without going through
+            // the heap. Each part's index entries move by the bytes before it.
+            RecommendationIndex.Builder index = indexed ? new RecommendationIndex.Builder() : null;
+            try (FileChannel out = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int shard = 0; shard < shards; shard++) {
+                    try (FileChannel in = FileChannel.open(parts.get(shard), StandardOpenOption.READ)) {
+                        if (index != null) {
+                            index.addAll(partIndexes.get(shard), out.position());
+                        }
+                        long size = in.size();
+                        for (long position = 0; position < size; ) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+            }
+            if (index != null) {
+                writeIndex(filename, index);
+            }
+        } finally {
+            pool.shutdownNow();
+            if (!keepParts) {
+                for (Path part : parts) {
+                    Files.deleteIfExists(part);
+                }
+            }
         }
+    }
 
-        writer.close();
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing recommendations", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Accepts recommendations one at a time; the caller must close the sink
+    public RecommendationSink openRecommendations(String filename) throws IOException {
+        if (!indexed) {
+            return openSink(filename, null);
+        }
+
+        RecommendationIndex.Builder index = new RecommendationIndex.Builder();
+        RecommendationSink sink = openSink(filename, index);
+        return new RecommendationSink() {
+            @Override
+            public void write(UserRecommendation recommendation) throws IOException {
+                sink.write(recommendation);
+            }
+
+            @Override
+            public void close() throws IOException {
+                sink.close();
+                writeIndex(filename, index);
+            }
+        };
     }
 
+    private void writeIndex(String filename, RecommendationIndex.Builder index) throws IOException {
+        index.write(RecommendationIndex.indexFileFor(filename), Files.size(Paths.get(filename)),
+                binary ? RecommendationIndex.BINARY : RecommendationIndex.TEXT);
+    }
+
+    private RecommendationSink openSink(String filename, RecommendationIndex.Builder index) throws IOException {
+        if (binary) {
+            return new BinaryRecommendationSink(Paths.get(filename), index);
+        }
+        if (gzipThreads > 0) {
+            return new TextRecommendationSink(gzipWriter(filename));
+        }
+        if (channelOutput || index != null) {
+            FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new ChannelRecommendationSink(channel, ChannelRecommendationSink.DEFAULT_BUFFER_SIZE, index);
+        }
+        // UTF-8 rather than the default charset, so every text path writes
+        // the same bytes and RecommendationIndex can decode them
+        return new TextRecommendationSink(new FileWriter(filename, StandardCharsets.UTF_8));
+    }
+
+    private Writer gzipWriter(String filename) throws IOException {
+        OutputStream gzip = new ParallelGzipOutputStream(Files.newOutputStream(Paths.get(filename)), gzipThreads);
+        return new OutputStreamWriter(gzip, StandardCharsets.UTF_8);
+    }
+
+    // Compressed too when writing gzip, and an error record when writing
+    // binary, so readers of the file need one format. An index left by an
+    // earlier run is deleted; it describes a file that is no longer there.
     public void writeError(String filename, String errorMessage) throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+        if (indexed) {
+            Files.deleteIfExists(RecommendationIndex.indexFileFor(filename));
+        }
+        if (binary) {
+            BinaryRecommendationSink.writeError(Paths.get(filename), errorMessage);
+            return;
+        }
+        BufferedWriter writer = new BufferedWriter(gzipThreads > 0
+                ? gzipWriter(filename)
+                : new FileWriter(filename, StandardCharsets.UTF_8));
         writer.write(errorMessage);
         writer.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package services;
+
+import models.User;
+import models.UserRecommendation;
+import java.util.List;
+
+// What the app, the server and the benchmarks need from a recommendation
+// model. Implementations must allow concurrent calls from many threads.
+public interface Recommender {
+
+    UserRecommendation generateRecommendations(User user);
+
+    // At most k titles, best first; k must be positive
+    UserRecommendation generateTopK(User user, int k);
+
+    // Results are in the same order as users whatever the parallelism
+    default List<UserRecommendation> generateAll(List<User> users, int parallelism) {
+        return UserBatches.recommendAll(users, parallelism, this::generateRecommendations);
+    }
+
+    default List<UserRecommendation> generateAllTopK(List<User> users, int k, int parallelism) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        return UserBatches.recommendAll(users, parallelism, user -> generateTopK(user, k));
+    }
+}
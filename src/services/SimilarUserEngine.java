@@ -0,0 +1,395 @@
+package services;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+// "Users like you also liked": recommends what the users with the most
+// similar liked sets (Jaccard) liked. Neighbors come from a MinHash index of
+// bands * rows values instead of comparing every pair; users sharing a band
+// bucket are candidates and are then checked exactly. A query scores at most
+// CANDIDATES_PER_NEIGHBOR * neighbors users per band, starting at a point
+// picked from the user's ID, so crowded buckets stay bounded. Read-only
+// after construction.
+public class SimilarUserEngine implements Recommender {
+    public static final int DEFAULT_BANDS = 16;
+    public static final int DEFAULT_ROWS = 4;
+    public static final int DEFAULT_NEIGHBORS = 50;
+    public static final int CANDIDATES_PER_NEIGHBOR = 4;
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final Map<String, Integer> movieIndex;
+    private final String[] titles;
+    private final int bands;
+    private final int rows;
+    private final int neighbors;
+    private final int candidatesPerBand;
+    private final long[] hashMultipliers;
+    private final long[] hashOffsets;
+    private final int[][] likes;
+    // Indexed user by user ID, to keep a user out of its own neighbors
+    private final Map<String, Integer> userIndex;
+    // Per band, (bucket << 32 | user) sorted, so one bucket is a contiguous run
+    private final long[][] bandKeys;
+    private final ThreadLocal<Scratch> scratch;
+    private final PipelineMetrics metrics;
+
+    public SimilarUserEngine(List<Movie> movies, List<User> users, int parallelism) {
+        this(movies, users, DEFAULT_BANDS, DEFAULT_ROWS, DEFAULT_NEIGHBORS, parallelism);
+    }
+
+    public SimilarUserEngine(List<Movie> movies, List<User> users, int bands, int rows,
+                             int neighbors, int parallelism) {
+        this(movies, users, bands, rows, neighbors, parallelism, PipelineMetrics.DISABLED);
+    }
+
+    // Every recommendation reports its latency and candidate count to metrics
+    public SimilarUserEngine(List<Movie> movies, List<User> users, int bands, int rows,
+                             int neighbors, int parallelism, PipelineMetrics metrics) {
+        if (bands < 1 || rows < 1 || neighbors < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("bands, rows, neighbors and parallelism must be positive: "
+                    + bands + ", " + rows + ", " + neighbors + ", " + parallelism);
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.neighbors = neighbors;
+        this.metrics = metrics;
+        this.candidatesPerBand = (int) Math.min(Integer.MAX_VALUE, (long) neighbors * CANDIDATES_PER_NEIGHBOR);
+
+        // A repeated ID keeps its first slot but takes the latest title, as in
+        // GenreIndex
+        this.movieIndex = new HashMap<>();
+        List<String> titleList = new ArrayList<>();
+        for (Movie movie : movies) {
+            Integer index = movieIndex.get(movie.getId());
+            if (index == null) {
+                movieIndex.put(movie.getId(), titleList.size());
+                titleList.add(movie.getTitle());
+            } else {
+                titleList.set(index, movie.getTitle());
+            }
+        }
+        this.titles = titleList.toArray(new String[0]);
+
+        Random random = new Random(SEED);
+        this.hashMultipliers = new long[bands * rows];
+        this.hashOffsets = new long[bands * rows];
+        for (int i = 0; i < hashMultipliers.length; i++) {
+            hashMultipliers[i] = random.nextLong() | 1;
+            hashOffsets[i] = random.nextLong();
+        }
+
+        // Users without a single known liked movie have nothing to share
+        List<int[]> likeList = new ArrayList<>(users.size());
+        this.userIndex = new HashMap<>();
+        for (User user : users) {
+            int[] liked = slotsOf(user.getLikedMovieIds());
+            if (liked.length > 0) {
+                userIndex.putIfAbsent(user.getId(), likeList.size());
+                likeList.add(liked);
+            }
+        }
+        this.likes = likeList.toArray(new int[0][]);
+        this.bandKeys = new long[bands][likes.length];
+
+        // The pool batch recommendations run in, shared rather than made per build
+        ForkJoinPool pool = parallelism > 1 ? UserBatches.poolFor(parallelism) : null;
+        int[] signature = new int[bands * rows];
+        forEach(pool, likes.length, parallelism, user -> {
+            int[] sig = pool == null ? signature : new int[bands * rows];
+            minHash(likes[user], sig);
+            for (int band = 0; band < bands; band++) {
+                bandKeys[band][user] = ((long) bucketOf(sig, band) << 32) | user;
+            }
+        });
+        forEach(pool, bands, parallelism, band -> Arrays.sort(bandKeys[band]));
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(titles.length, likes.length));
+    }
+
+    // Runs body for 0..count-1, split over the pool when there is one
+    private static void forEach(ForkJoinPool pool, int count, int parallelism, IntConsumer body) {
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        } else {
+            int threshold = Math.max(1, count / (parallelism * 8));
+            pool.invoke(new SliceTask(body, 0, count, threshold));
+        }
+    }
+
+    // Probability that two users with the given Jaccard similarity share at
+    // least one bucket
+    public static double candidateProbability(double similarity, int bands, int rows) {
+        return 1 - Math.pow(1 - Math.pow(similarity, rows), bands);
+    }
+
+    private int[] slotsOf(List<String> movieIds) {
+        int[] slots = new int[movieIds.size()];
+        int size = 0;
+        for (String movieId : movieIds) {
+            Integer index = movieIndex.get(movieId);
+            if (index != null) {
+                slots[size++] = index;
+            }
+        }
+
+        Arrays.sort(slots, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || slots[distinct - 1] != slots[i]) {
+                slots[distinct++] = slots[i];
+            }
+        }
+        return Arrays.copyOf(slots, distinct);
+    }
+
+    private void minHash(int[] liked, int[] signature) {
+        for (int i = 0; i < signature.length; i++) {
+            long multiplier = hashMultipliers[i];
+            long offset = hashOffsets[i];
+            int min = Integer.MAX_VALUE;
+            for (int movie : liked) {
+                // High bits of a multiply-add are a good enough universal hash
+                int hash = (int) ((movie * multiplier + offset) >>> 33);
+                if (hash < min) {
+                    min = hash;
+                }
+            }
+            signature[i] = min;
+        }
+    }
+
+    private int bucketOf(int[] signature, int band) {
+        long hash = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            hash = (hash + signature[i]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    public int userCount() {
+        return likes.length;
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Exact Jaccard similarity of two sorted, distinct slot arrays
+    static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    // Every movie liked by a neighbor, ranked by the summed similarity of the
+    // neighbors who liked it, ties in catalog order
+    @Override
+    public UserRecommendation generateRecommendations(User user) {
+        return rank(user, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public UserRecommendation generateTopK(User user, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        return rank(user, k);
+    }
+
+    private UserRecommendation rank(User user, int limit) {
+        long start = metrics.startTimer();
+        int[] liked = slotsOf(user.getLikedMovieIds());
+        List<String> recommendedTitles = new ArrayList<>();
+        if (liked.length == 0) {
+            metrics.recordRecommendation(start, 0);
+            return new UserRecommendation(user.getName(), user.getId(), recommendedTitles);
+        }
+
+        Scratch s = scratch.get();
+        int found = collectNeighbors(user.getId(), liked, s);
+        Arrays.sort(s.neighbors, 0, found);
+
+        int touched = 0;
+        for (int n = 0; n < Math.min(neighbors, found); n++) {
+            long neighbor = s.neighbors[n];
+            float similarity = Float.intBitsToFloat(Integer.MAX_VALUE - (int) (neighbor >>> 32));
+            // A bucket collision can pair users that share nothing; those
+            // sort last
+            if (similarity == 0) break;
+
+            for (int movie : likes[(int) neighbor]) {
+                if (s.scores[movie] == 0) {
+                    s.touchedMovies[touched++] = movie;
+                }
+                s.scores[movie] += similarity;
+            }
+        }
+        for (int movie : liked) {
+            s.scores[movie] = 0;
+        }
+
+        long[] ranked = new long[touched];
+        int candidates = 0;
+        for (int i = 0; i < touched; i++) {
+            int movie = s.touchedMovies[i];
+            if (s.scores[movie] > 0) {
+                ranked[candidates++] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits(s.scores[movie])) << 32) | movie;
+            }
+            s.scores[movie] = 0;
+        }
+        Arrays.sort(ranked, 0, candidates);
+
+        int size = Math.min(limit, candidates);
+        for (int i = 0; i < size; i++) {
+            recommendedTitles.add(titles[(int) ranked[i]]);
+        }
+
+        metrics.recordRecommendation(start, candidates);
+        return new UserRecommendation(user.getName(), user.getId(), recommendedTitles);
+    }
+
+    // Scores the bucket mates of the given liked set into s.neighbors and
+    // returns how many there are. Similarity descending then user index
+    // ascending, packed like the ranking in rank(). Float bits of a
+    // non-negative float sort like the float.
+    private int collectNeighbors(String userId, int[] liked, Scratch s) {
+        int[] signature = new int[bands * rows];
+        minHash(liked, signature);
+
+        Integer self = userIndex.get(userId);
+        if (self != null) {
+            s.seen[self] = true;
+        }
+        int start = userId.hashCode() * 0x9E3779B9;
+
+        int found = 0;
+        for (int band = 0; band < bands; band++) {
+            long[] keys = bandKeys[band];
+            long bucket = (long) bucketOf(signature, band) << 32;
+            int from = Arrays.binarySearch(keys, bucket);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            int to = from;
+            while (to < keys.length && (keys[to] & 0xFFFFFFFF00000000L) == bucket) {
+                to++;
+            }
+
+            // Walk the bucket round from a per-user, per-band starting point
+            int length = to - from;
+            int offset = length == 0 ? 0 : Math.floorMod(start + band * 0x61C88647, length);
+            int taken = 0;
+            for (int i = 0; i < length && taken < candidatesPerBand; i++) {
+                int other = (int) keys[from + (offset + i) % length];
+                if (s.seen[other]) continue;
+
+                s.seen[other] = true;
+                taken++;
+                float similarity = (float) jaccard(liked, likes[other]);
+                s.addNeighbor(found++, ((long) (Integer.MAX_VALUE - Float.floatToIntBits(similarity)) << 32) | other);
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            s.seen[(int) s.neighbors[i]] = false;
+        }
+        if (self != null) {
+            s.seen[self] = false;
+        }
+        return found;
+    }
+
+    // Indexed users a query for this user scores, for tests
+    int[] candidatesOf(User user) {
+        int[] liked = slotsOf(user.getLikedMovieIds());
+        Scratch s = scratch.get();
+        int found = liked.length == 0 ? 0 : collectNeighbors(user.getId(), liked, s);
+        int[] candidates = new int[found];
+        for (int i = 0; i < found; i++) {
+            candidates[i] = (int) s.neighbors[i];
+        }
+        return candidates;
+    }
+
+    // Per-thread accumulators, left cleared after every call
+    private static class Scratch {
+        private final float[] scores;
+        private final int[] touchedMovies;
+        private final boolean[] seen;
+        private long[] neighbors;
+
+        Scratch(int movies, int users) {
+            this.scores = new float[movies];
+            this.touchedMovies = new int[movies];
+            this.seen = new boolean[users];
+            this.neighbors = new long[64];
+        }
+
+        void addNeighbor(int at, long neighbor) {
+            if (at == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, at * 2);
+            }
+            neighbors[at] = neighbor;
+        }
+    }
+
+    private static class SliceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer body;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SliceTask(IntConsumer body, int from, int to, int threshold) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SliceTask(body, from, mid, threshold),
+                    new SliceTask(body, mid, to, threshold));
+        }
+    }
+}
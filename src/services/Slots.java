@@ -0,0 +1,43 @@
+package services;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Append-only indexed storage that readers use without locking. Growing
+// copies into a larger array and then publishes it, so a reader sees either
+// the old or the new array, each complete. Only one thread may write at a
+// time.
+class Slots<T> {
+    private volatile AtomicReferenceArray<T> items;
+    private volatile int size;
+
+    Slots() {
+        this.items = new AtomicReferenceArray<>(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    T get(int index) {
+        return items.get(index);
+    }
+
+    void set(int index, T item) {
+        items.set(index, item);
+    }
+
+    int add(T item) {
+        AtomicReferenceArray<T> current = items;
+        if (size == current.length()) {
+            AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(current.length() * 2);
+            for (int i = 0; i < size; i++) {
+                grown.set(i, current.get(i));
+            }
+            items = grown;
+            current = grown;
+        }
+        current.set(size, item);
+        size++;
+        return size - 1;
+    }
+}
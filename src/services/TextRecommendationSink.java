@@ -0,0 +1,28 @@
+package services;
+
+import models.UserRecommendation;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+public class TextRecommendationSink implements RecommendationSink {
+    private BufferedWriter writer;
+
+    public TextRecommendationSink(Writer writer) {
+        this.writer = new BufferedWriter(writer);
+    }
+
+    @Override
+    public void write(UserRecommendation rec) throws IOException {
+        writer.write(rec.getUserName() + "," + rec.getUserId());
+        writer.newLine();
+
+        writer.write(String.join(",", rec.getRecommendedMovieTitles()));
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
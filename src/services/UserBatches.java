@@ -0,0 +1,87 @@
+package services;
+
+import models.User;
+import models.UserRecommendation;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+final class UserBatches {
+
+    // One pool per parallelism for the life of the process, so streaming runs
+    // that call recommendAll once per batch do not start and stop threads each
+    // time. Workers are daemon threads and retire after a while idle, so a
+    // pool nobody uses costs nothing.
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private UserBatches() {
+    }
+
+    static ForkJoinPool poolFor(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    static List<UserRecommendation> recommendAll(List<User> users, int parallelism,
+                                                 Function<User, UserRecommendation> recommender) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+
+        List<User> batch = users instanceof RandomAccess ? users : new ArrayList<>(users);
+        UserRecommendation[] results = new UserRecommendation[batch.size()];
+
+        if (parallelism == 1) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = recommender.apply(batch.get(i));
+            }
+        } else {
+            // Roughly eight slices per worker keeps them busy when some users
+            // like far more movies than others
+            int threshold = Math.max(1, results.length / (parallelism * 8));
+            poolFor(parallelism).invoke(new BatchTask(batch, results, 0, results.length, threshold, recommender));
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private static class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<User> users;
+        private final UserRecommendation[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Function<User, UserRecommendation> recommender;
+
+        BatchTask(List<User> users, UserRecommendation[] results, int from, int to,
+                  int threshold, Function<User, UserRecommendation> recommender) {
+            this.users = users;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.recommender = recommender;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    results[i] = recommender.apply(users.get(i));
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(users, results, from, mid, threshold, recommender),
+                    new BatchTask(users, results, mid, to, threshold, recommender));
+        }
+    }
+}
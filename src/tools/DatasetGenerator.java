@@ -0,0 +1,173 @@
+package tools;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Writes a movies file and a users file that MovieParser and UserParser accept,
+// sized and skewed by GeneratorOptions. The same options always produce the
+// same bytes.
+public class DatasetGenerator {
+    private static final String[] GENRES = {
+            "action", "drama", "comedy", "thriller", "sci-fi", "romance", "horror",
+            "adventure", "animation", "crime", "fantasy", "mystery", "documentary",
+            "family", "war", "western", "musical", "history", "sport", "biography"
+    };
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ra", "ten", "dor", "vel", "sa", "nu", "qui", "bar",
+            "zen", "fi", "tor", "gal", "an", "mor", "el", "shi", "pra"
+    };
+    private static final String[] FIRST_NAMES = {
+            "John", "Alice", "Bob", "Mona", "Omar", "Sara", "Youssef", "Laila", "Ahmed", "Nour"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Adel", "Khaled", "Hassan", "Brown", "Mahmoud"
+    };
+
+    // Odd and not a multiple of 5, so i * USER_ID_STRIDE visits every value
+    // mod 10^9 exactly once and user IDs never repeat
+    private static final long USER_ID_STRIDE = 387_420_489L;
+    private static final long USER_ID_RANGE = 1_000_000_000L;
+
+    private GeneratorOptions options;
+    private String[] movieIds;
+
+    public DatasetGenerator(GeneratorOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        GeneratorOptions options;
+        try {
+            options = GeneratorOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        try {
+            new DatasetGenerator(options).generate();
+            System.out.println("Wrote " + options.getMovies() + " movies to " + options.getMoviesFile()
+                    + " and " + options.getUsers() + " users to " + options.getUsersFile());
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+
+    public void generate() throws IOException {
+        try (Writer movies = new FileWriter(options.getMoviesFile())) {
+            writeMovies(movies);
+        }
+        try (Writer users = new FileWriter(options.getUsersFile())) {
+            writeUsers(users);
+        }
+    }
+
+    public void writeMovies(Writer out) throws IOException {
+        Random random = new Random(options.getSeed());
+        ZipfSampler genrePopularity = new ZipfSampler(options.getGenres(), options.getGenreSkew());
+        String idFormat = "%0" + options.getMovieIdDigits() + "d";
+        BufferedWriter writer = new BufferedWriter(out);
+
+        movieIds = new String[options.getMovies()];
+        for (int i = 0; i < movieIds.length; i++) {
+            int words = 1 + random.nextInt(4);
+            StringBuilder title = new StringBuilder();
+            StringBuilder id = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                String word = word(random);
+                if (w > 0) {
+                    title.append(' ');
+                }
+                title.append(word);
+                id.append(word.charAt(0));
+            }
+            // The suffix is the movie's position, so suffixes are unique
+            id.append(String.format(idFormat, i));
+            movieIds[i] = id.toString();
+
+            int genreCount = 1 + random.nextInt(options.getGenresPerMovie());
+            List<String> genres = new ArrayList<>(genreCount);
+            for (int rank : distinctRanks(genrePopularity, genreCount, random)) {
+                genres.add(genreName(rank));
+            }
+
+            writer.write(title + "," + movieIds[i]);
+            writer.newLine();
+            writer.write(String.join(",", genres));
+            writer.newLine();
+        }
+
+        writer.flush();
+    }
+
+    // Users like movies from the catalog written by writeMovies, which runs
+    // first when it has not already
+    public void writeUsers(Writer out) throws IOException {
+        if (movieIds == null) {
+            writeMovies(Writer.nullWriter());
+        }
+
+        Random random = new Random(options.getSeed() + 1);
+        ZipfSampler likedLength = new ZipfSampler(options.getMaxLiked(), options.getLikedSkew());
+        ZipfSampler moviePopularity = new ZipfSampler(movieIds.length, options.getMovieSkew());
+        long idOffset = Math.floorMod(options.getSeed(), USER_ID_RANGE);
+        BufferedWriter writer = new BufferedWriter(out);
+
+        for (long i = 0; i < options.getUsers(); i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String id = String.format("%09d", (i * USER_ID_STRIDE + idOffset) % USER_ID_RANGE);
+
+            int likedCount = 1 + likedLength.sample(random);
+            List<String> liked = new ArrayList<>(likedCount);
+            for (int rank : distinctRanks(moviePopularity, likedCount, random)) {
+                liked.add(movieIds[rank]);
+            }
+
+            writer.write(name + "," + id);
+            writer.newLine();
+            writer.write(String.join(",", liked));
+            writer.newLine();
+        }
+
+        writer.flush();
+    }
+
+    // A repeated draw moves on to the next unused rank, so this finishes even
+    // when count is close to the sampler size and the skew is steep
+    private static List<Integer> distinctRanks(ZipfSampler sampler, int count, Random random) {
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> ranks = new ArrayList<>(count);
+
+        while (ranks.size() < count) {
+            int rank = sampler.sample(random);
+            while (!seen.add(rank)) {
+                rank = (rank + 1) % sampler.size();
+            }
+            ranks.add(rank);
+        }
+
+        return ranks;
+    }
+
+    private static String word(Random random) {
+        int syllables = 1 + random.nextInt(3);
+        StringBuilder word = new StringBuilder();
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    private static String genreName(int rank) {
+        return rank < GENRES.length ? GENRES[rank] : "genre" + rank;
+    }
+}
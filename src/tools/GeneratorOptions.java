@@ -0,0 +1,186 @@
+package tools;
+
+import validators.MovieValidator;
+
+public class GeneratorOptions {
+    private int movies = 1000;
+    private int users = 1000;
+    private int genres = 20;
+    private int genresPerMovie = 3;
+    private double genreSkew = 1.0;
+    private int maxLiked = 10;
+    private double likedSkew = 1.0;
+    private double movieSkew = 1.0;
+    private long seed = 42;
+    private int movieIdDigits;
+    private String moviesFile = "generated_movies.txt";
+    private String usersFile = "generated_users.txt";
+
+    public static GeneratorOptions parse(String[] args) {
+        GeneratorOptions options = new GeneratorOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = valueAfter(args, i);
+            i++;
+
+            switch (arg) {
+                case "--movies":
+                    options.movies = parsePositiveInt(arg, value);
+                    break;
+                case "--users":
+                    options.users = parseNonNegativeInt(arg, value);
+                    break;
+                case "--genres":
+                    options.genres = parsePositiveInt(arg, value);
+                    break;
+                case "--genres-per-movie":
+                    options.genresPerMovie = parsePositiveInt(arg, value);
+                    break;
+                case "--genre-skew":
+                    options.genreSkew = parseSkew(arg, value);
+                    break;
+                case "--max-liked":
+                    options.maxLiked = parsePositiveInt(arg, value);
+                    break;
+                case "--liked-skew":
+                    options.likedSkew = parseSkew(arg, value);
+                    break;
+                case "--movie-skew":
+                    options.movieSkew = parseSkew(arg, value);
+                    break;
+                case "--seed":
+                    options.seed = parseLong(arg, value);
+                    break;
+                case "--id-digits":
+                    options.movieIdDigits = parsePositiveInt(arg, value);
+                    break;
+                case "--movies-out":
+                    options.moviesFile = value;
+                    break;
+                case "--users-out":
+                    options.usersFile = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        int digits = options.getMovieIdDigits();
+        if (digits > MovieValidator.MAX_SUFFIX_DIGITS || Math.pow(10, digits) < options.movies) {
+            throw new IllegalArgumentException(options.movies + " movies do not fit in "
+                    + digits + "-digit movie IDs");
+        }
+        if (options.users > 1_000_000_000) {
+            throw new IllegalArgumentException("At most 1000000000 users have distinct 9-digit IDs");
+        }
+
+        return options;
+    }
+
+    private static String valueAfter(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    private static int parsePositiveInt(String option, String value) {
+        int parsed = parseNonNegativeInt(option, value);
+        if (parsed == 0) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+        return parsed;
+    }
+
+    private static int parseNonNegativeInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    private static double parseSkew(String option, String value) {
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    private static long parseLong(String option, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    public int getMovies() {
+        return movies;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getGenres() {
+        return genres;
+    }
+
+    // Each movie gets between 1 and this many distinct genres
+    public int getGenresPerMovie() {
+        return Math.min(genresPerMovie, genres);
+    }
+
+    public double getGenreSkew() {
+        return genreSkew;
+    }
+
+    // Each user likes between 1 and this many distinct movies
+    public int getMaxLiked() {
+        return Math.min(maxLiked, movies);
+    }
+
+    public double getLikedSkew() {
+        return likedSkew;
+    }
+
+    public double getMovieSkew() {
+        return movieSkew;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Defaults to the 3 digits MovieValidator expects, widened only when the
+    // catalog needs more
+    public int getMovieIdDigits() {
+        if (movieIdDigits > 0) {
+            return movieIdDigits;
+        }
+        int digits = MovieValidator.DEFAULT_SUFFIX_DIGITS;
+        while (Math.pow(10, digits) < movies) {
+            digits++;
+        }
+        return digits;
+    }
+
+    public String getMoviesFile() {
+        return moviesFile;
+    }
+
+    public String getUsersFile() {
+        return usersFile;
+    }
+}
@@ -0,0 +1,37 @@
+package tools;
+
+import models.UserRecommendation;
+import services.RecommendationIndex;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Prints the recommendations made to the given users, found through the index
+// written by --index instead of by reading the whole recommendations file.
+// Usage: RecommendationLookup <recommendations file> <user ID>...
+public class RecommendationLookup {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RecommendationLookup <recommendations file> <user ID>...");
+            return;
+        }
+
+        Path dataFile = Paths.get(args[0]);
+        try {
+            RecommendationIndex index = RecommendationIndex.open(dataFile,
+                    RecommendationIndex.indexFileFor(args[0]));
+            for (int i = 1; i < args.length; i++) {
+                UserRecommendation rec = index.lookup(args[i]);
+                if (rec == null) {
+                    System.out.println("No recommendations for " + args[i]);
+                } else {
+                    System.out.println(rec.getUserName() + "," + rec.getUserId());
+                    System.out.println(String.join(",", rec.getRecommendedMovieTitles()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package tools;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Draws ranks 0..n-1 where rank k is chosen with probability proportional to
+// 1 / (k + 1)^skew. A skew of 0 is uniform; around 1 matches typical
+// popularity curves.
+public class ZipfSampler {
+    private double[] cumulative;
+
+    public ZipfSampler(int n, double skew) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative: " + skew);
+        }
+
+        cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1.0 / Math.pow(k + 1, skew);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+    }
+
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
@@ -3,13 +3,47 @@ package validators;
 import exceptions.MovieTitleException;
 import exceptions.MovieIdLettersException;
 import exceptions.MovieIdNumbersException;
+import java.util.BitSet;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.HashMap;
 
 public class MovieValidator {
 
+    public static final int DEFAULT_SUFFIX_DIGITS = 3;
+    public static final int MAX_SUFFIX_DIGITS = 9;
+
+    private int suffixDigits;
+    private boolean uniqueFullId;
+
+    // ASCII digit suffixes are tracked as bits; other Unicode digits, which
+    // Character.isDigit also accepts, fall back to the String set. With
+    // uniqueFullId each letter prefix gets its own bits, so TDK123 and I123
+    // may coexist.
+    private BitSet usedDigitSuffixes;
+    private Map<PrefixKey, BitSet> usedSuffixesByPrefix = new HashMap<>();
+    private final PrefixKey prefixLookup = new PrefixKey();
     private Set<String> existingMovieIds = new HashSet<>();
 
+    public MovieValidator() {
+        this(DEFAULT_SUFFIX_DIGITS, false);
+    }
+
+    // IDs carry suffixDigits digits after the letters, so a catalog can hold
+    // up to 10^suffixDigits movies, or that many per letter prefix when
+    // uniqueness covers the full ID
+    public MovieValidator(int suffixDigits, boolean uniqueFullId) {
+        if (suffixDigits < 1 || suffixDigits > MAX_SUFFIX_DIGITS) {
+            throw new IllegalArgumentException("Movie ID digits must be between 1 and "
+                    + MAX_SUFFIX_DIGITS + ": " + suffixDigits);
+        }
+        this.suffixDigits = suffixDigits;
+        this.uniqueFullId = uniqueFullId;
+        // Sized for the whole digit width when small, otherwise grown on demand
+        this.usedDigitSuffixes = new BitSet(suffixDigits <= 4 ? (int) Math.pow(10, suffixDigits) : 1 << 13);
+    }
+
     public void validateTitle(String title) throws MovieTitleException {
         if (title == null || title.trim().isEmpty()) {
             throw new MovieTitleException(title);
@@ -35,7 +69,7 @@ public class MovieValidator {
             throw new MovieIdLettersException(movieId);
         }
 
-        if (numbersPart.length() != 3) {
+        if (numbersPart.length() != suffixDigits) {
             throw new MovieIdNumbersException(movieId);
         }
 
@@ -45,11 +79,161 @@ public class MovieValidator {
             }
         }
 
-        if (existingMovieIds.contains(numbersPart)) {
+        if (!claimSuffix(expectedLetters, numbersPart)) {
             throw new MovieIdNumbersException(movieId);
         }
-        else {
-            existingMovieIds.add(numbersPart);
+    }
+
+    // Runs validateTitle and validateMovieId as one pass over the characters.
+    // Accepted movies cost no allocation; anything the pass cannot accept is
+    // handed to the String checks, which throw the usual exception.
+    public void validateMovie(CharSequence title, CharSequence movieId)
+            throws MovieTitleException, MovieIdLettersException, MovieIdNumbersException {
+        if (!isValidTitle(title)) {
+            validateTitle(title == null ? null : title.toString());
+        }
+        if (!claimMovieId(title, movieId)) {
+            validateMovieId(title.toString(), movieId == null ? null : movieId.toString());
+        }
+    }
+
+    private boolean isValidTitle(CharSequence title) {
+        if (title == null) {
+            return false;
+        }
+
+        boolean blank = true;
+        boolean wordStart = true;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (c > ' ') {
+                blank = false;
+            }
+
+            if (isWordSeparator(c)) {
+                // A leading separator makes split produce an empty first word
+                if (i == 0) {
+                    return false;
+                }
+                wordStart = true;
+            } else {
+                if (wordStart && !Character.isUpperCase(c)) {
+                    return false;
+                }
+                wordStart = false;
+            }
+        }
+        return !blank;
+    }
+
+    // The characters matched by \s in validateTitle's split
+    private static boolean isWordSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private boolean claimMovieId(CharSequence title, CharSequence movieId) {
+        if (movieId == null) {
+            return false;
+        }
+
+        int letters = 0;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (letters >= movieId.length() || movieId.charAt(letters) != c) {
+                    return false;
+                }
+                letters++;
+            }
+        }
+
+        if (movieId.length() - letters != suffixDigits) {
+            return false;
+        }
+
+        int suffix = 0;
+        for (int i = letters; i < movieId.length(); i++) {
+            char c = movieId.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            suffix = suffix * 10 + (c - '0');
+        }
+
+        return claimBit(movieId, letters, suffix);
+    }
+
+    private boolean claimSuffix(String letters, String numbersPart) {
+        int suffix = 0;
+        for (int i = 0; i < numbersPart.length(); i++) {
+            char c = numbersPart.charAt(i);
+            if (c < '0' || c > '9') {
+                return existingMovieIds.add(uniqueFullId ? letters + numbersPart : numbersPart);
+            }
+            suffix = suffix * 10 + (c - '0');
+        }
+
+        return claimBit(letters, letters.length(), suffix);
+    }
+
+    private boolean claimBit(CharSequence movieId, int letters, int suffix) {
+        BitSet used = usedDigitSuffixes;
+        if (uniqueFullId) {
+            // Looked up in place; only a prefix seen for the first time is copied
+            used = usedSuffixesByPrefix.get(prefixLookup.set(movieId, letters));
+            if (used == null) {
+                used = new BitSet();
+                usedSuffixesByPrefix.put(new PrefixKey().set(movieId.subSequence(0, letters).toString(), letters),
+                        used);
+            }
+        }
+
+        if (used.get(suffix)) {
+            return false;
+        }
+        used.set(suffix);
+        return true;
+    }
+
+    // The letter prefix of a movie ID as a map key, compared char by char
+    // with String's hash, so one reusable instance can point into the ID
+    // being validated while the stored keys hold their own copies
+    private static final class PrefixKey {
+        private CharSequence chars;
+        private int length;
+        private int hash;
+
+        PrefixKey set(CharSequence chars, int length) {
+            this.chars = chars;
+            this.length = length;
+            int h = 0;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + chars.charAt(i);
+            }
+            this.hash = h;
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PrefixKey)) {
+                return false;
+            }
+            PrefixKey other = (PrefixKey) o;
+            if (other.length != length || other.hash != hash) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (other.chars.charAt(i) != chars.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 
@@ -62,4 +246,4 @@ public class MovieValidator {
         }
         return capitals.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package validators;
+
+import metrics.PipelineMetrics;
+import metrics.Stage;
+import exceptions.MovieTitleException;
+import exceptions.MovieIdLettersException;
+import exceptions.MovieIdNumbersException;
+
+// Adds the time spent validating each movie to the movie-validation stage,
+// one record per movie ID checked. When validateMovie falls back to the
+// String checks, they run inside its timing and are not recorded again.
+public class TimedMovieValidator extends MovieValidator {
+    private final PipelineMetrics metrics;
+    private boolean inValidateMovie;
+
+    public TimedMovieValidator(int suffixDigits, boolean uniqueFullId, PipelineMetrics metrics) {
+        super(suffixDigits, uniqueFullId);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void validateTitle(String title) throws MovieTitleException {
+        if (inValidateMovie) {
+            super.validateTitle(title);
+            return;
+        }
+        long start = metrics.startTimer();
+        try {
+            super.validateTitle(title);
+        } finally {
+            metrics.recordStage(Stage.MOVIE_VALIDATION, start, 0);
+        }
+    }
+
+    @Override
+    public void validateMovieId(String title, String movieId)
+            throws MovieIdLettersException, MovieIdNumbersException {
+        if (inValidateMovie) {
+            super.validateMovieId(title, movieId);
+            return;
+        }
+        long start = metrics.startTimer();
+        try {
+            super.validateMovieId(title, movieId);
+        } finally {
+            metrics.recordStage(Stage.MOVIE_VALIDATION, start, 1);
+        }
+    }
+
+    @Override
+    public void validateMovie(CharSequence title, CharSequence movieId)
+            throws MovieTitleException, MovieIdLettersException, MovieIdNumbersException {
+        long start = metrics.startTimer();
+        inValidateMovie = true;
+        try {
+            super.validateMovie(title, movieId);
+        } finally {
+            inValidateMovie = false;
+            metrics.recordStage(Stage.MOVIE_VALIDATION, start, 1);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package validators;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.HashSet;
+
+// Set of user IDs packed into longs and kept in an open-addressing table, so
+// membership checks neither box nor hash Strings. Valid IDs (nine digits, or
+// eight digits and a letter) always pack; anything else, such as IDs with
+// non-ASCII digits, falls back to a String set.
+public class UserIdSet extends AbstractSet<String> {
+    private static final long EMPTY = 0;
+    private static final long LETTER_FLAG = 1L << 48;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] slots;
+    private int packedCount;
+    private Set<String> unpacked;
+
+    public UserIdSet() {
+        this.slots = new long[MIN_CAPACITY];
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+
+        String userId = (String) o;
+        long key = pack(userId);
+        if (key < 0) {
+            return unpacked != null && unpacked.contains(userId);
+        }
+        return slots[find(slots, key)] == key;
+    }
+
+    @Override
+    public boolean add(String userId) {
+        long key = pack(userId);
+        if (key < 0) {
+            if (unpacked == null) {
+                unpacked = new HashSet<>();
+            }
+            return unpacked.add(userId);
+        }
+
+        int slot = find(slots, key);
+        if (slots[slot] == key) {
+            return false;
+        }
+
+        slots[slot] = key;
+        packedCount++;
+        // Grow at 3/4 full, keeping about 10 bytes per ID
+        if (packedCount * 4L > slots.length * 3L) {
+            resize();
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return packedCount + (unpacked == null ? 0 : unpacked.size());
+    }
+
+    // Rebuilds each packed ID as a String; meant for debugging, not hot paths
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int slot = nextUsed(0);
+            private Iterator<String> rest;
+
+            private int nextUsed(int from) {
+                while (from < slots.length && slots[from] == EMPTY) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (slot < slots.length) {
+                    return true;
+                }
+                if (rest == null) {
+                    rest = unpacked == null ? new HashSet<String>().iterator() : unpacked.iterator();
+                }
+                return rest.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (slot < slots.length) {
+                    String userId = unpack(slots[slot]);
+                    slot = nextUsed(slot + 1);
+                    return userId;
+                }
+                return rest.next();
+            }
+        };
+    }
+
+    private void resize() {
+        long[] grown = new long[slots.length * 2];
+        for (long key : slots) {
+            if (key != EMPTY) {
+                grown[find(grown, key)] = key;
+            }
+        }
+        slots = grown;
+    }
+
+    // Linear probe for the slot holding key, or the empty slot where it belongs
+    private static int find(long[] table, long key) {
+        int mask = table.length - 1;
+        // Fibonacci hashing: the top bits of the product index the table
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> Long.numberOfLeadingZeros(mask));
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Nine ASCII digits pack to their value, eight digits and a letter to the
+    // digits, the letter and a flag bit; both get +1 so no key equals EMPTY.
+    // Returns -1 for IDs that do not pack.
+    public static long pack(String userId) {
+        if (userId == null || userId.length() != 9) {
+            return -1;
+        }
+
+        long digits = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = userId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            digits = digits * 10 + (c - '0');
+        }
+
+        char last = userId.charAt(8);
+        if (last >= '0' && last <= '9') {
+            return digits * 10 + (last - '0') + 1;
+        }
+        if (Character.isLetter(last)) {
+            return (LETTER_FLAG | ((long) last << 32) | digits) + 1;
+        }
+        return -1;
+    }
+
+    static String unpack(long key) {
+        long packed = key - 1;
+        if ((packed & LETTER_FLAG) == 0) {
+            return String.format("%09d", packed);
+        }
+        return String.format("%08d", packed & 0xFFFFFFFFL) + (char) ((packed >>> 32) & 0xFFFF);
+    }
+}
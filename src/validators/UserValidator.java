@@ -2,6 +2,8 @@ package validators;
 
 import exceptions.UserNameException;
 import exceptions.UserIdException;
+import exceptions.ValidationException;
+import java.util.List;
 import java.util.Set;
 
 public class UserValidator {
@@ -47,6 +49,26 @@ public class UserValidator {
         }
     }
 
+    // A liked movie ID must look like one: letters then digits, nothing else.
+    // Unknown but well-formed IDs are fine; the engines skip them.
+    public void validateLikedMovieIds(List<String> likedMovieIds) throws ValidationException {
+        for (String movieId : likedMovieIds) {
+            boolean digits = false;
+            boolean valid = !movieId.isEmpty() && Character.isLetter(movieId.charAt(0));
+            for (int i = 0; valid && i < movieId.length(); i++) {
+                char c = movieId.charAt(i);
+                if (Character.isDigit(c)) {
+                    digits = true;
+                } else if (digits || !Character.isLetter(c)) {
+                    valid = false;
+                }
+            }
+            if (!valid || !digits) {
+                throw new ValidationException("ERROR: Liked Movie Id " + movieId + " is wrong");
+            }
+        }
+    }
+
     public void validateUniqueUserId(String userId, Set<String> existingIds)
             throws UserIdException {
         if (existingIds.contains(userId)) {
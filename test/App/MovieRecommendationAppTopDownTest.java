@@ -2,9 +2,14 @@ package App;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
+import metrics.PipelineMetrics;
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MovieRecommendationAppTopDownTest {
@@ -322,4 +327,204 @@ class MovieRecommendationAppTopDownTest {
         Files.deleteIfExists(outputFile);
     }
 
+
+    @Test
+    void testMainWorkflow_StreamingMatchesBatchOutput() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Path usersFile = tempDir.resolve("users.txt");
+
+        Files.writeString(moviesFile,
+                "The Godfather,TG345\n" +
+                        "crime,drama\n" +
+                        "Interstellar,I678\n" +
+                        "sci-fi,adventure,drama\n"
+        );
+
+        Files.writeString(usersFile,
+                "Alice Johnson,987654321\n" +
+                        "TG345\n" +
+                        "Bob Williams,123456780\n" +
+                        "I678\n"
+        );
+
+        String input = moviesFile + "\n" + usersFile + "\n";
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        MovieRecommendationApp.main(new String[]{});
+        String batchContent = Files.readString(Path.of("recommendations.txt"));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        MovieRecommendationApp.main(new String[]{"--streaming"});
+        String streamedContent = Files.readString(Path.of("recommendations.txt"));
+
+        assertEquals(batchContent, streamedContent,
+                "Streaming mode should write the same recommendations");
+
+        Files.deleteIfExists(Path.of("recommendations.txt"));
+    }
+
+    @Test
+    void testMainWorkflow_BitsetIndexMatchesMapOutput() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Path usersFile = tempDir.resolve("users.txt");
+
+        // Enough movies in one genre that hash order and catalog order differ
+        StringBuilder movies = new StringBuilder();
+        StringBuilder expected = new StringBuilder("Alice Johnson,987654321\n");
+        String[] titles = {"Zodiac", "Heat", "Alien", "Memento", "Casino", "Fargo", "Se Seven",
+                "Gladiator", "Amelie", "Brazil", "Psycho", "Vertigo"};
+        for (int i = 0; i < titles.length; i++) {
+            String id = titles[i].replaceAll("[^A-Z]", "") + (100 + i * 37);
+            movies.append(titles[i]).append(',').append(id).append("\ndrama\n");
+            if (i > 0) {
+                expected.append(i > 1 ? "," : "").append(titles[i]);
+            }
+        }
+        Files.writeString(moviesFile, movies.toString());
+        Files.writeString(usersFile, "Alice Johnson,987654321\nZ100\n");
+
+        String input = moviesFile + "\n" + usersFile + "\n";
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        MovieRecommendationApp.main(new String[]{});
+        String mapContent = Files.readString(Path.of("recommendations.txt"));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        MovieRecommendationApp.main(new String[]{"--bitset-index"});
+        String indexedContent = Files.readString(Path.of("recommendations.txt"));
+
+        assertEquals(mapContent, indexedContent,
+                "Both engine modes should write the same file");
+        assertEquals(expected + "\n", mapContent,
+                "Titles should be listed in catalog order");
+
+        Files.deleteIfExists(Path.of("recommendations.txt"));
+    }
+
+    @Test
+    void testMainWorkflow_StreamingValidationErrorReplacesOutput() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Path usersFile = tempDir.resolve("users.txt");
+
+        Files.writeString(moviesFile,
+                "The Godfather,TG345\n" +
+                        "crime,drama\n"
+        );
+
+        Files.writeString(usersFile,
+                "Alice Johnson,987654321\n" +
+                        "TG345\n" +
+                        "Bob Williams,987654321\n" +
+                        "TG345\n"
+        );
+
+        String input = moviesFile + "\n" + usersFile + "\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+
+        MovieRecommendationApp.main(new String[]{"--streaming"});
+
+        assertTrue(outputStream.toString().contains("Validation error"),
+                "Should display validation error message");
+        assertEquals("ERROR: User Id 987654321 is wrong",
+                Files.readString(Path.of("recommendations.txt")),
+                "Only the error should remain in recommendations.txt");
+
+        Files.deleteIfExists(Path.of("recommendations.txt"));
+    }
+
+    @Test
+    void testMainWorkflow_MetricsReportAndMBean() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Path usersFile = tempDir.resolve("users.txt");
+
+        Files.writeString(moviesFile,
+                "The Godfather,TG345\n" +
+                        "crime,drama\n" +
+                        "Interstellar,I678\n" +
+                        "sci-fi,adventure,drama\n"
+        );
+
+        Files.writeString(usersFile,
+                "Alice Johnson,987654321\n" +
+                        "TG345\n" +
+                        "Bob Williams,123456780\n" +
+                        "I678\n"
+        );
+
+        String input = moviesFile + "\n" + usersFile + "\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+
+        MovieRecommendationApp.main(new String[]{"--metrics"});
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Recommendations generated successfully!"));
+        assertTrue(output.contains("movie-parse"), "Should report stage metrics");
+        assertTrue(output.contains("recommend latency"), "Should report latency percentiles");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(PipelineMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name), "Should register the metrics MBean");
+        assertEquals(2L, server.getAttribute(name, "Recommendations"));
+        assertEquals(Files.size(Path.of("recommendations.txt")),
+                server.getAttribute(name, "BytesWritten"));
+
+        Files.deleteIfExists(Path.of("recommendations.txt"));
+    }
+
+    @Test
+    void testMainWorkflow_SnapshotWrittenThenReused() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Path usersFile = tempDir.resolve("users.txt");
+        Path snapshot = tempDir.resolve("movies.txt.snapshot");
+
+        Files.writeString(moviesFile,
+                "The Godfather,TG345\n" +
+                        "crime,drama\n" +
+                        "Interstellar,I678\n" +
+                        "sci-fi,adventure,drama\n"
+        );
+        Files.writeString(usersFile,
+                "Alice Johnson,987654321\n" +
+                        "TG345\n"
+        );
+        String input = moviesFile + "\n" + usersFile + "\n";
+
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        MovieRecommendationApp.main(new String[]{"--snapshot"});
+        assertTrue(Files.exists(snapshot), "First run should write the snapshot");
+        String first = Files.readString(Path.of("recommendations.txt"));
+        assertTrue(first.contains("Interstellar"));
+
+        // A snapshot that opens must be used instead of the text file
+        long written = Files.getLastModifiedTime(snapshot).toMillis();
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        MovieRecommendationApp.main(new String[]{"--snapshot"});
+        assertEquals(written, Files.getLastModifiedTime(snapshot).toMillis());
+        assertEquals(first, Files.readString(Path.of("recommendations.txt")));
+
+        // An edited movies file makes the snapshot stale
+        Files.writeString(moviesFile,
+                "The Godfather,TG345\n" +
+                        "crime,drama\n" +
+                        "The Shawshank Redemption,TSR789\n" +
+                        "drama\n"
+        );
+        Files.setLastModifiedTime(moviesFile, FileTime.fromMillis(written + 5000));
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        MovieRecommendationApp.main(new String[]{"--snapshot"});
+        String second = Files.readString(Path.of("recommendations.txt"));
+        assertTrue(second.contains("The Shawshank Redemption"));
+        assertFalse(second.contains("Interstellar"));
+
+        Files.deleteIfExists(Path.of("recommendations.txt"));
+    }
 }
\ No newline at end of file
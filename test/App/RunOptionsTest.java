@@ -0,0 +1,219 @@
+package App;
+
+import services.SimilarUserEngine;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunOptionsTest {
+
+    @Test
+    void testParse_NoArguments() {
+        RunOptions options = RunOptions.parse(new String[]{});
+
+        assertEquals(0, options.getTopK());
+        assertEquals(1, options.getParallelism());
+        assertFalse(options.isStreaming());
+        assertFalse(options.isMappedMovies());
+        assertEquals(3, options.getMovieIdDigits());
+        assertFalse(options.isUniqueFullMovieId());
+    }
+
+    @Test
+    void testParse_TopK() {
+        RunOptions options = RunOptions.parse(new String[]{"--top-k", "5"});
+
+        assertEquals(5, options.getTopK());
+    }
+
+    @Test
+    void testParse_TopKMissingValue() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--top-k"}));
+    }
+
+    @Test
+    void testParse_TopKNotPositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--top-k", "0"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--top-k", "ten"}));
+    }
+
+    @Test
+    void testParse_UnknownOption() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--fast"}));
+    }
+
+    @Test
+    void testParse_ParallelismWithTopK() {
+        RunOptions options = RunOptions.parse(new String[]{"--parallelism", "8", "--top-k", "3"});
+
+        assertEquals(8, options.getParallelism());
+        assertEquals(3, options.getTopK());
+    }
+
+    @Test
+    void testParse_Streaming() {
+        RunOptions options = RunOptions.parse(new String[]{"--streaming"});
+
+        assertTrue(options.isStreaming());
+    }
+
+    @Test
+    void testParse_MappedMovies() {
+        RunOptions options = RunOptions.parse(new String[]{"--mmap", "--streaming"});
+
+        assertTrue(options.isMappedMovies());
+        assertTrue(options.isStreaming());
+    }
+
+    @Test
+    void testParse_WideMovieIds() {
+        RunOptions options = RunOptions.parse(new String[]{"--id-digits", "7", "--unique-full-id"});
+
+        assertEquals(7, options.getMovieIdDigits());
+        assertTrue(options.isUniqueFullMovieId());
+    }
+
+    @Test
+    void testParse_MovieIdDigitsTooWide() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--id-digits", "10"}));
+    }
+
+    @Test
+    void testParse_Metrics() {
+        assertFalse(RunOptions.parse(new String[]{}).isMetrics());
+        assertTrue(RunOptions.parse(new String[]{"--metrics"}).isMetrics());
+    }
+
+    @Test
+    void testParse_Serve() {
+        RunOptions options = RunOptions.parse(new String[]{"--serve", "8080", "--threads", "16"});
+
+        assertEquals(8080, options.getServePort());
+        assertEquals(16, options.getServerThreads());
+        assertEquals(0, RunOptions.parse(new String[]{}).getServePort());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--serve"}));
+    }
+
+    @Test
+    void testParse_CandidateCache() {
+        assertEquals(0, RunOptions.parse(new String[]{}).getCandidateCacheSize());
+        assertEquals(4096, RunOptions.parse(new String[]{"--candidate-cache", "4096"}).getCandidateCacheSize());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--candidate-cache", "0"}));
+    }
+
+    @Test
+    void testParse_BitsetIndex() {
+        assertFalse(RunOptions.parse(new String[]{}).isBitsetIndex());
+        assertTrue(RunOptions.parse(new String[]{"--bitset-index", "--serve", "8080"}).isBitsetIndex());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--bitset-index", "--compact"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--bitset-index", "--co-like"}));
+    }
+
+    @Test
+    void testParse_CoLike() {
+        assertTrue(RunOptions.parse(new String[]{"--co-like", "--parallelism", "4"}).isCoLike());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--co-like", "--streaming"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--serve", "8080", "--co-like"}));
+    }
+
+    @Test
+    void testParse_SimilarUsers() {
+        RunOptions defaults = RunOptions.parse(new String[]{"--similar-users"});
+        assertTrue(defaults.isSimilarUsers());
+        assertEquals(SimilarUserEngine.DEFAULT_BANDS, defaults.getLshBands());
+        assertEquals(SimilarUserEngine.DEFAULT_ROWS, defaults.getLshRows());
+
+        RunOptions tuned = RunOptions.parse(new String[]{"--similar-users", "--lsh-bands", "32", "--lsh-rows", "2"});
+        assertEquals(32, tuned.getLshBands());
+        assertEquals(2, tuned.getLshRows());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--lsh-rows", "0"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--similar-users", "--streaming"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--similar-users", "--co-like"}));
+    }
+
+    @Test
+    void testParse_Compact() {
+        assertFalse(RunOptions.parse(new String[]{}).isCompact());
+        assertTrue(RunOptions.parse(new String[]{"--compact", "--streaming"}).isCompact());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--compact", "--co-like"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--compact", "--serve", "8080"}));
+    }
+
+    @Test
+    void testParse_SnapshotImpliesCompact() {
+        RunOptions options = RunOptions.parse(new String[]{"--snapshot"});
+        assertTrue(options.isSnapshot());
+        assertTrue(options.isCompact());
+        assertFalse(RunOptions.parse(new String[]{"--compact"}).isSnapshot());
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--snapshot", "--serve", "8080"}));
+    }
+
+    @Test
+    void testParse_OutputShards() {
+        RunOptions options = RunOptions.parse(new String[]{"--output-shards", "4", "--keep-parts"});
+        assertEquals(4, options.getOutputShards());
+        assertTrue(options.isKeepParts());
+        assertEquals(1, RunOptions.parse(new String[]{}).getOutputShards());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--output-shards", "4", "--streaming"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--keep-parts"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--output-shards", "0"}));
+    }
+
+    @Test
+    void testParse_Gzip() {
+        assertFalse(RunOptions.parse(new String[]{}).isGzip());
+        assertTrue(RunOptions.parse(new String[]{"--gzip", "--streaming"}).isGzip());
+    }
+
+    @Test
+    void testParse_BinaryOutput() {
+        assertFalse(RunOptions.parse(new String[]{}).isBinaryOutput());
+        assertTrue(RunOptions.parse(new String[]{"--binary-output", "--streaming"}).isBinaryOutput());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--binary-output", "--gzip"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--binary-output", "--output-shards", "2"}));
+    }
+
+    @Test
+    void testParse_Index() {
+        assertFalse(RunOptions.parse(new String[]{}).isIndexed());
+        assertTrue(RunOptions.parse(new String[]{"--index", "--binary-output"}).isIndexed());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--index", "--gzip"}));
+    }
+
+    @Test
+    void testParse_NioOutput() {
+        assertFalse(RunOptions.parse(new String[]{}).isChannelOutput());
+        assertTrue(RunOptions.parse(new String[]{"--nio-output", "--streaming"}).isChannelOutput());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--nio-output", "--gzip"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> RunOptions.parse(new String[]{"--nio-output", "--binary-output"}));
+    }
+}
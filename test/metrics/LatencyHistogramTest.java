@@ -0,0 +1,75 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty_ReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0.0, histogram.getMean());
+    }
+
+    @Test
+    public void testSmallValues_AreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(9, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(100));
+        assertEquals(5.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testLargeValues_WithinOneSixteenth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(3);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (long) (random.nextDouble() * 10_000_000);
+            histogram.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+
+        for (double p : new double[]{50, 90, 99}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long reported = histogram.getPercentile(p);
+            assertTrue(reported >= exact && reported <= exact + exact / 16 + 1,
+                    "p" + p + " reported " + reported + " exact " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void testBuckets_CoverWholeRange() {
+        for (long value : new long[]{0, 31, 32, 33, 1000, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value, "value " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testReset_ClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram().getPercentile(101));
+    }
+}
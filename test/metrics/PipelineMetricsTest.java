@@ -0,0 +1,123 @@
+package metrics;
+
+import models.Movie;
+import models.User;
+import services.RecommendationEngine;
+import validators.TimedMovieValidator;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineMetricsTest {
+    private List<Movie> movies = Arrays.asList(
+            new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+            new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+            new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+            new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama"))
+    );
+
+    @Test
+    public void testDisabled_RecordsNothing() {
+        PipelineMetrics metrics = PipelineMetrics.DISABLED;
+        metrics.recordStage(Stage.MOVIE_PARSE, metrics.startTimer(), 10);
+        metrics.recordRecommendation(metrics.startTimer(), 5);
+        metrics.addBytesWritten(100);
+
+        assertFalse(metrics.isEnabled());
+        assertEquals(0, metrics.getStageRecords(Stage.MOVIE_PARSE));
+        assertEquals(0, metrics.getRecommendations());
+        assertEquals(0, metrics.getBytesWritten());
+    }
+
+    @Test
+    public void testStages_AccumulateRecordsAndTime() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        long start = metrics.startTimer();
+        Thread.sleep(2);
+        metrics.recordStage(Stage.USER_PARSE, start, 40);
+        metrics.recordStage(Stage.USER_PARSE, metrics.startTimer(), 60);
+
+        assertEquals(100, metrics.getStageRecords(Stage.USER_PARSE));
+        assertTrue(metrics.getStageNanos(Stage.USER_PARSE) >= 2_000_000);
+        assertTrue(metrics.getRecordsPerSecond(Stage.USER_PARSE) > 0);
+        assertEquals(Long.valueOf(100), metrics.getStageRecords().get("user-parse"));
+        assertEquals(Long.valueOf(0), metrics.getStageRecords().get("write"));
+    }
+
+    @Test
+    public void testEngine_ReportsCandidateSetSizes() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RecommendationEngine engine = new RecommendationEngine(movies, false, metrics);
+
+        engine.generateRecommendations(new User("Test User", "123456789", Arrays.asList("TDK123")));
+        engine.generateTopK(new User("Test User", "123456780", Arrays.asList("TSR789")), 1);
+
+        assertEquals(2, metrics.getRecommendations());
+        assertEquals(2, metrics.getStageRecords(Stage.RECOMMEND));
+        assertEquals(1, metrics.getCandidateSetMax());
+        assertEquals(1.0, metrics.getCandidateSetMean(), 1e-9);
+    }
+
+    @Test
+    public void testIndexedEngine_ReportsCandidateSetSizes() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RecommendationEngine engine = new RecommendationEngine(movies, true, metrics);
+
+        engine.generateAll(Arrays.asList(
+                new User("Test User", "123456789", Arrays.asList("TSR789")),
+                new User("Test User", "123456780", Arrays.asList("I456"))), 2);
+
+        assertEquals(2, metrics.getRecommendations());
+        assertEquals(1, metrics.getCandidateSetP50());
+        assertEquals(1, metrics.getCandidateSetMax());
+    }
+
+    @Test
+    public void testTimedValidator_CountsMovies() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        TimedMovieValidator validator = new TimedMovieValidator(3, false, metrics);
+
+        validator.validateMovie("The Dark Knight", "TDK123");
+        validator.validateTitle("Inception");
+        validator.validateMovieId("Inception", "I456");
+
+        assertEquals(2, metrics.getStageRecords(Stage.MOVIE_VALIDATION));
+        assertThrows(exceptions.MovieIdNumbersException.class,
+                () -> validator.validateMovie("Interstellar", "I456"));
+    }
+
+    @Test
+    public void testTimedValidator_FallbackCountedOnce() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        TimedMovieValidator validator = new TimedMovieValidator(3, false, metrics);
+
+        // Arabic-Indic digits are only accepted by the String checks
+        validator.validateMovie("The Dark Knight", "TDK\u0661\u0662\u0663");
+        assertEquals(1, metrics.getStageRecords(Stage.MOVIE_VALIDATION));
+
+        validator.validateMovie("Inception", "I456");
+        assertThrows(exceptions.MovieIdNumbersException.class,
+                () -> validator.validateMovie("Interstellar", "I456"));
+        assertThrows(exceptions.MovieTitleException.class,
+                () -> validator.validateMovie("mad max", "MM789"));
+        assertEquals(4, metrics.getStageRecords(Stage.MOVIE_VALIDATION));
+
+        // Direct calls are still timed on their own
+        validator.validateMovieId("The Godfather", "TG345");
+        assertEquals(5, metrics.getStageRecords(Stage.MOVIE_VALIDATION));
+    }
+
+    @Test
+    public void testReset_ClearsCounters() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.recordStage(Stage.WRITE, metrics.startTimer(), 3);
+        metrics.recordRecommendation(metrics.startTimer(), 7);
+        metrics.addBytesWritten(42);
+        metrics.reset();
+
+        assertEquals(0, metrics.getStageRecords(Stage.WRITE));
+        assertEquals(0, metrics.getRecommendations());
+        assertEquals(0, metrics.getBytesWritten());
+    }
+}
@@ -0,0 +1,164 @@
+package parsers;
+
+import models.Movie;
+import exceptions.ValidationException;
+import validators.MovieValidator;
+import exceptions.MovieTitleException;
+import exceptions.MovieIdLettersException;
+import exceptions.MovieIdNumbersException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedMovieParserTest {
+    private String testFile = "test_mapped_movies.txt";
+
+    @AfterEach
+    public void tearDown() {
+        File file = new File(testFile);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseMovies_SameMoviesAsMovieParser() throws Exception {
+        createTestFile("The Dark Knight,TDK123\naction,thriller\n" +
+                "Inception,I456\naction,sci-fi,thriller\n" +
+                "  The Godfather  ,  TG345  \n crime , drama \n");
+
+        assertSameMovies(new MovieParser().parseMovies(testFile),
+                new MappedMovieParser().parseMovies(testFile));
+    }
+
+    @Test
+    public void testParseMovies_LineEndings() throws Exception {
+        createTestFile("The Dark Knight,TDK123\r\naction,thriller\rInception,I456\naction");
+
+        List<Movie> movies = new MappedMovieParser().parseMovies(testFile);
+
+        assertEquals(2, movies.size());
+        assertEquals(Arrays.asList("action", "thriller"), movies.get(0).getGenres());
+        assertEquals("Inception", movies.get(1).getTitle());
+        assertEquals(Arrays.asList("action"), movies.get(1).getGenres());
+    }
+
+    @Test
+    public void testParseMovies_GenreSplittingMatchesStringSplit() throws Exception {
+        String[] genreLines = {"", " ", "action,,", ",action", ",,", "action, ,", "action , drama"};
+
+        for (int i = 0; i < genreLines.length; i++) {
+            createTestFile("Inception,I" + (100 + i) + "\n" + genreLines[i] + "\n");
+
+            assertSameMovies(new MovieParser().parseMovies(testFile),
+                    new MappedMovieParser().parseMovies(testFile));
+        }
+    }
+
+    @Test
+    public void testParseMovies_SmallWindowsMatchWholeFile() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append("The Movie Number,TMN").append(100 + i).append("\r\n");
+            content.append("drama,comedy,genre").append(i).append("\r\n");
+        }
+        createTestFile(content.toString());
+
+        List<Movie> expected = new MovieParser().parseMovies(testFile);
+        for (int window : new int[]{1, 7, 23, 64}) {
+            assertSameMovies(expected, new MappedMovieParser(new MovieValidator(), window).parseMovies(testFile));
+        }
+    }
+
+    @Test
+    public void testParseMovies_NonAsciiTitle() throws Exception {
+        createTestFile("Am\u00e9lie,A123\nromance\n");
+
+        assertSameMovies(new MovieParser().parseMovies(testFile),
+                new MappedMovieParser().parseMovies(testFile));
+    }
+
+    @Test
+    public void testParseMovies_ValidatesBytesBeforeMakingStrings() throws Exception {
+        createTestFile("The Dark Knight,TDK123\naction\nAm\u00e9lie,A456\nromance\n");
+        List<Class<?>> validated = new ArrayList<>();
+        MovieValidator recording = new MovieValidator() {
+            @Override
+            public void validateMovie(CharSequence title, CharSequence movieId)
+                    throws MovieTitleException, MovieIdLettersException, MovieIdNumbersException {
+                validated.add(title.getClass());
+                validated.add(movieId.getClass());
+                super.validateMovie(title, movieId);
+            }
+        };
+
+        List<Movie> movies = new MappedMovieParser(recording).parseMovies(testFile);
+
+        assertEquals("The Dark Knight", movies.get(0).getTitle());
+        assertEquals("TDK123", movies.get(0).getId());
+        // ASCII fields are byte views; the non-ASCII title is decoded first
+        assertNotEquals(String.class, validated.get(0));
+        assertNotEquals(String.class, validated.get(1));
+        assertEquals(String.class, validated.get(2));
+        assertNotEquals(String.class, validated.get(3));
+    }
+
+    @Test
+    public void testParseMovies_SameErrors() throws Exception {
+        createTestFile("the dark knight,TDK123\naction\n");
+        assertThrows(MovieTitleException.class,
+                () -> new MappedMovieParser().parseMovies(testFile));
+
+        createTestFile("The Dark Knight,ABC123\naction\n");
+        assertThrows(MovieIdLettersException.class,
+                () -> new MappedMovieParser().parseMovies(testFile));
+
+        createTestFile("The Dark Knight TDK123\naction\n");
+        ValidationException format = assertThrows(ValidationException.class,
+                () -> new MappedMovieParser().parseMovies(testFile));
+        assertEquals("Invalid movie format", format.getMessage());
+
+        createTestFile("The Dark Knight,TDK123\n");
+        ValidationException missing = assertThrows(ValidationException.class,
+                () -> new MappedMovieParser().parseMovies(testFile));
+        assertEquals("Missing genres line", missing.getMessage());
+    }
+
+    @Test
+    public void testParseMovies_EmptyFile() throws Exception {
+        createTestFile("");
+
+        assertEquals(0, new MappedMovieParser().parseMovies(testFile).size());
+    }
+
+    @Test
+    public void testParseMovies_FileNotFound() {
+        assertThrows(IOException.class,
+                () -> new MappedMovieParser().parseMovies("nonexistent_file.txt"));
+    }
+
+    private void assertSameMovies(List<Movie> expected, List<Movie> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTitle(), actual.get(i).getTitle());
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getGenres(), actual.get(i).getGenres());
+        }
+    }
+
+    // Helper method to create test file with exact bytes
+    private void createTestFile(String content) {
+        try (FileOutputStream out = new FileOutputStream(testFile)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail("Failed to create test file: " + e.getMessage());
+        }
+    }
+}
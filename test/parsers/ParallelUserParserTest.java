@@ -0,0 +1,158 @@
+package parsers;
+
+import models.User;
+import exceptions.ValidationException;
+import exceptions.UserIdException;
+import exceptions.UserNameException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelUserParserTest {
+    private String testFile = "test_parallel_users.txt";
+
+    @AfterEach
+    public void tearDown() {
+        File file = new File(testFile);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseUsers_SameUsersForEveryChunkSize() throws Exception {
+        createTestFile(usersContent(40, "\n"));
+
+        List<User> expected = new UserParser().parseUsers(testFile);
+        for (long chunkBytes : new long[]{1, 2, 3, 7, 17, 64, 1000, 100000}) {
+            assertSameUsers(expected, new ParallelUserParser(4, chunkBytes).parseUsers(testFile));
+        }
+    }
+
+    @Test
+    public void testParseUsers_CarriageReturnLineEndings() throws Exception {
+        createTestFile(usersContent(25, "\r\n"));
+
+        List<User> expected = new UserParser().parseUsers(testFile);
+        for (long chunkBytes : new long[]{1, 5, 21, 22, 23}) {
+            assertSameUsers(expected, new ParallelUserParser(3, chunkBytes).parseUsers(testFile));
+        }
+    }
+
+    @Test
+    public void testParseUsers_DefaultChunking() throws Exception {
+        createTestFile(usersContent(10, "\n"));
+
+        assertSameUsers(new UserParser().parseUsers(testFile),
+                new ParallelUserParser(8).parseUsers(testFile));
+    }
+
+    @Test
+    public void testParseUsers_DuplicateAcrossChunks() throws Exception {
+        createTestFile("John Smith,123456789\nTDK123\n" +
+                "Alice Johnson,987654321\nI456\n" +
+                "Bob Williams,123456789\nTSR789\n");
+
+        UserIdException error = assertThrows(UserIdException.class,
+                () -> new ParallelUserParser(3, 8).parseUsers(testFile));
+        assertEquals("ERROR: User Id 123456789 is wrong", error.getMessage());
+    }
+
+    @Test
+    public void testParseUsers_FirstErrorWins() throws Exception {
+        // The duplicate in the second user comes before the bad name in the last one
+        createTestFile("John Smith,123456789\nTDK123\n" +
+                "John Smith,123456789\nTDK123\n" +
+                "Alice Johnson,987654321\nI456\n" +
+                "Bob123,111111111\nTSR789\n");
+
+        for (long chunkBytes : new long[]{4, 16, 40, 1000}) {
+            ValidationException sequential = assertThrows(ValidationException.class,
+                    () -> new UserParser().parseUsers(testFile));
+            ValidationException parallel = assertThrows(ValidationException.class,
+                    () -> new ParallelUserParser(4, chunkBytes).parseUsers(testFile));
+
+            assertEquals(sequential.getClass(), parallel.getClass());
+            assertEquals(sequential.getMessage(), parallel.getMessage());
+        }
+    }
+
+    @Test
+    public void testParseUsers_DuplicateBeforeMissingLikedLine() throws Exception {
+        createTestFile("John Smith,123456789\nTDK123\n" +
+                "Alice Johnson,987654321\nI456\n" +
+                "Bob Williams,123456789");
+
+        UserIdException error = assertThrows(UserIdException.class,
+                () -> new ParallelUserParser(2, 30).parseUsers(testFile));
+        assertEquals("ERROR: User Id 123456789 is wrong", error.getMessage());
+    }
+
+    @Test
+    public void testParseUsers_MissingLikedMoviesLine() throws Exception {
+        createTestFile("John Smith,123456789\nTDK123\nAlice Johnson,987654321\n");
+
+        ValidationException error = assertThrows(ValidationException.class,
+                () -> new ParallelUserParser(2, 10).parseUsers(testFile));
+        assertEquals("Missing liked movies line", error.getMessage());
+    }
+
+    @Test
+    public void testParseUsers_InvalidNameInLaterChunk() throws Exception {
+        createTestFile(usersContent(20, "\n") + "John123,999999999\nTDK123\n");
+
+        assertThrows(UserNameException.class,
+                () -> new ParallelUserParser(4, 50).parseUsers(testFile));
+    }
+
+    @Test
+    public void testParseUsers_EmptyFile() throws Exception {
+        createTestFile("");
+
+        assertEquals(0, new ParallelUserParser(4).parseUsers(testFile).size());
+    }
+
+    @Test
+    public void testParseUsers_FileNotFound() {
+        assertThrows(IOException.class,
+                () -> new ParallelUserParser(2).parseUsers("nonexistent_file.txt"));
+    }
+
+    @Test
+    public void testConstructor_NonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelUserParser(0));
+    }
+
+    private String usersContent(int count, String newline) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(i % 2 == 0 ? "John Smith" : "Al").append(",")
+                    .append(100000000 + i).append(newline);
+            content.append(i % 3 == 0 ? "TDK123,I456" : "TSR789").append(newline);
+        }
+        return content.toString();
+    }
+
+    private void assertSameUsers(List<User> expected, List<User> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getLikedMovieIds(), actual.get(i).getLikedMovieIds());
+        }
+    }
+
+    // Helper method to create test file with exact bytes
+    private void createTestFile(String content) {
+        try (FileOutputStream out = new FileOutputStream(testFile)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail("Failed to create test file: " + e.getMessage());
+        }
+    }
+}
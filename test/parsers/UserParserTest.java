@@ -273,6 +273,42 @@ public class UserParserTest {
         assertEquals("Bob Williams", users.get(2).getName());
     }
 
+    @Test
+    public void testOpenUsers_ReadsOneUserAtATime() throws Exception {
+        createTestFile(
+                "John Smith,123456789",
+                "TDK123,I456",
+                "Alice Johnson,987654321",
+                "TSR789"
+        );
+
+        try (UserReader reader = parser.openUsers(testFile)) {
+            User first = reader.readUser();
+            assertEquals("John Smith", first.getName());
+            assertEquals(2, first.getLikedMovieIds().size());
+
+            User second = reader.readUser();
+            assertEquals("987654321", second.getId());
+
+            assertNull(reader.readUser());
+        }
+    }
+
+    @Test
+    public void testOpenUsers_ErrorSurfacesAtOffendingUser() throws Exception {
+        createTestFile(
+                "John Smith,123456789",
+                "TDK123",
+                "Alice Johnson,123456789",
+                "TSR789"
+        );
+
+        try (UserReader reader = parser.openUsers(testFile)) {
+            assertNotNull(reader.readUser());
+            assertThrows(UserIdException.class, reader::readUser);
+        }
+    }
+
     // Helper method to create test file
     private void createTestFile(String... lines) {
         try {
@@ -0,0 +1,175 @@
+package server;
+
+import models.User;
+import parsers.MovieParser;
+import services.RecommendationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogWatcherTest {
+    private static final String CATALOG_V1 =
+            "The Dark Knight,TDK123\naction,thriller\n" +
+            "Inception,I456\naction,sci-fi\n";
+    private static final String CATALOG_V2 = CATALOG_V1 +
+            "Mad Max,MM789\naction\n";
+
+    @TempDir
+    Path tempDir;
+
+    private CatalogWatcher watcher;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    private CatalogWatcher.Loader loaderFor(Path moviesFile) {
+        return () -> new RecommendationEngine(new MovieParser().parseMovies(moviesFile.toString()), true);
+    }
+
+    private List<String> titlesFor(RecommendationEngine engine, String... liked) {
+        return engine.generateRecommendations(new User("Test User", "123456789", Arrays.asList(liked)))
+                .getRecommendedMovieTitles();
+    }
+
+    @Test
+    public void testReload_SwapsEngine() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Files.writeString(moviesFile, CATALOG_V1);
+        watcher = new CatalogWatcher(moviesFile, loaderFor(moviesFile));
+        RecommendationEngine before = watcher.get();
+
+        Files.writeString(moviesFile, CATALOG_V2);
+        assertTrue(watcher.reload());
+
+        assertNotSame(before, watcher.get());
+        assertEquals(1, watcher.getReloadCount());
+        assertEquals(2, titlesFor(watcher.get(), "TDK123").size());
+        // The old snapshot is untouched for anyone still holding it
+        assertEquals(1, titlesFor(before, "TDK123").size());
+    }
+
+    @Test
+    public void testReload_InvalidCatalogKeepsPreviousEngine() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Files.writeString(moviesFile, CATALOG_V1);
+        watcher = new CatalogWatcher(moviesFile, loaderFor(moviesFile));
+        RecommendationEngine before = watcher.get();
+
+        Files.writeString(moviesFile, CATALOG_V1 + "mad max,MM789\naction\n");
+        assertFalse(watcher.reload());
+
+        assertSame(before, watcher.get());
+        assertEquals("ERROR: Movie Title mad max is wrong", watcher.getLastError());
+    }
+
+    @Test
+    public void testWatch_MalformedCatalogKeepsWatcherAlive() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Files.writeString(moviesFile, CATALOG_V1);
+        watcher = new CatalogWatcher(moviesFile, loaderFor(moviesFile));
+        RecommendationEngine before = watcher.get();
+        watcher.start();
+
+        // A two-character ID makes the validator throw a RuntimeException
+        // rather than a ValidationException
+        Files.writeString(moviesFile, "The Dark Knight,TD\naction,thriller\n");
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (watcher.getLastError() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertNotNull(watcher.getLastError());
+        assertEquals(0, watcher.getReloadCount());
+        assertSame(before, watcher.get());
+        assertEquals(Arrays.asList("Inception"), titlesFor(watcher.get(), "TDK123"));
+
+        Files.writeString(moviesFile, CATALOG_V2);
+
+        deadline = System.currentTimeMillis() + 15_000;
+        while (watcher.getReloadCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, watcher.getReloadCount());
+        assertNull(watcher.getLastError());
+        assertEquals(Arrays.asList("Inception", "Mad Max"), titlesFor(watcher.get(), "TDK123"));
+    }
+
+    @Test
+    public void testWatch_PicksUpFileChange() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Files.writeString(moviesFile, CATALOG_V1);
+        watcher = new CatalogWatcher(moviesFile, loaderFor(moviesFile));
+        watcher.start();
+
+        Files.writeString(tempDir.resolve("other.txt"), "unrelated");
+        Files.writeString(moviesFile, CATALOG_V2);
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (watcher.getReloadCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, watcher.getReloadCount());
+        assertEquals(Arrays.asList("Inception", "Mad Max"), titlesFor(watcher.get(), "TDK123"));
+    }
+
+    @Test
+    public void testServer_AnswersFromOldCatalogDuringRebuild() throws Exception {
+        Path moviesFile = tempDir.resolve("movies.txt");
+        Files.writeString(moviesFile, CATALOG_V1);
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CatalogWatcher.Loader slowLoader = () -> {
+            RecommendationEngine engine = loaderFor(moviesFile).load();
+            if (watcher != null) {
+                rebuilding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return engine;
+        };
+        watcher = new CatalogWatcher(moviesFile, slowLoader);
+
+        RecommendationServer server = new RecommendationServer(watcher, 0, 2, 0);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort()
+                    + RecommendationServer.PATH + "?liked=TDK123")).build();
+
+            Files.writeString(moviesFile, CATALOG_V2);
+            Thread reload = new Thread(watcher::reload);
+            reload.start();
+            assertTrue(rebuilding.await(5, TimeUnit.SECONDS));
+
+            assertEquals("Inception\n", client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+
+            release.countDown();
+            reload.join();
+            assertEquals("Inception,Mad Max\n", client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        } finally {
+            release.countDown();
+            server.stop();
+        }
+    }
+}
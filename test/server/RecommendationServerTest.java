@@ -0,0 +1,183 @@
+package server;
+
+import models.Movie;
+import services.RecommendationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecommendationServerTest {
+    private RecommendationServer server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @BeforeAll
+    public static void enableNoDelay() {
+        RecommendationServer.enableNoDelay();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        List<Movie> movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama")),
+                new Movie("Interstellar", "I678", Arrays.asList("sci-fi", "adventure", "drama"))
+        );
+
+        server = new RecommendationServer(new RecommendationEngine(movies, true), 0, 4, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + server.getPort() + RecommendationServer.PATH;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String query) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + query)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String query, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + query))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testGet_RecommendsByLikedMovies() throws Exception {
+        HttpResponse<String> response = get("?liked=TSR789");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("The Godfather,Interstellar\n", response.body());
+    }
+
+    @Test
+    public void testGet_TopK() throws Exception {
+        HttpResponse<String> response = get("?liked=TSR789,I456&k=1");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("Interstellar\n", response.body());
+    }
+
+    @Test
+    public void testGet_MissingLiked() throws Exception {
+        HttpResponse<String> response = get("");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("ERROR: Missing liked movies\n", response.body());
+    }
+
+    @Test
+    public void testGet_InvalidK() throws Exception {
+        assertEquals(400, get("?liked=TSR789&k=0").statusCode());
+        assertEquals(400, get("?liked=TSR789&k=abc").statusCode());
+    }
+
+    @Test
+    public void testGet_ValidatesLikedMovieIds() throws Exception {
+        HttpResponse<String> response = get("?liked=TSR789,,I456");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("ERROR: Liked Movie Id  is wrong\n", response.body());
+
+        response = get("?liked=TSR%2B789");
+        assertEquals(400, response.statusCode());
+        assertEquals("ERROR: Liked Movie Id TSR+789 is wrong\n", response.body());
+    }
+
+    @Test
+    public void testPost_BatchInUsersFormat() throws Exception {
+        HttpResponse<String> response = post("",
+                "Alice Johnson,987654321\nTSR789\nBob Williams,123456780\nTDK123\n");
+
+        assertEquals(200, response.statusCode());
+        String newLine = System.lineSeparator();
+        assertEquals("Alice Johnson,987654321" + newLine + "The Godfather,Interstellar" + newLine
+                + "Bob Williams,123456780" + newLine + "Inception" + newLine, response.body());
+    }
+
+    @Test
+    public void testPost_ValidatesUsers() throws Exception {
+        HttpResponse<String> response = post("",
+                "Alice Johnson,987654321\nTSR789\nBob Williams,987654321\nTDK123\n");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("ERROR: User Id 987654321 is wrong\n", response.body());
+
+        response = post("", "alice3,987654321\nTSR789\n");
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().startsWith("ERROR: User Name"));
+    }
+
+    @Test
+    public void testUnsupportedMethodAndPath() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl))
+                        .DELETE().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+
+        response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/extra")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    public void testConcurrentRequests_LatencyAndThroughput() throws Exception {
+        int clients = 8;
+        int requestsPerClient = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        // One untimed round so class loading and connection setup are not measured
+        get("?liked=TDK123");
+
+        long start = System.nanoTime();
+        List<Future<?>> done = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            done.add(pool.submit(() -> {
+                for (int r = 0; r < requestsPerClient; r++) {
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = get("?liked=TDK123,TSR789");
+                    latencies.add(System.nanoTime() - sent);
+                    assertEquals(200, response.statusCode());
+                    assertEquals("Inception,The Godfather,Interstellar\n", response.body());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        Collections.sort(latencies);
+        double p50 = latencies.get(latencies.size() / 2) / 1e6;
+        double p99 = latencies.get(latencies.size() * 99 / 100) / 1e6;
+        double throughput = latencies.size() * 1e9 / elapsed;
+        System.out.printf("server: %d requests, %.0f req/s, p50 %.2f ms, p99 %.2f ms%n",
+                latencies.size(), throughput, p50, p99);
+
+        assertEquals(clients * requestsPerClient, latencies.size());
+        // Generous bound: a warm engine answers in well under a millisecond,
+        // so only a stalled handler pool would come near it
+        assertTrue(p50 < 50, "p50 " + p50 + " ms");
+    }
+}
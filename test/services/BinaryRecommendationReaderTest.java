@@ -0,0 +1,245 @@
+package services;
+
+import models.UserRecommendation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryRecommendationReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final RecommendationWriter writer = new RecommendationWriter(1, false, 0, true);
+
+    private List<UserRecommendation> readAll(Path file) throws IOException {
+        List<UserRecommendation> read = new ArrayList<>();
+        try (BinaryRecommendationReader reader = new BinaryRecommendationReader(file)) {
+            UserRecommendation rec;
+            while ((rec = reader.read()) != null) {
+                read.add(rec);
+            }
+        }
+        return read;
+    }
+
+    private static void assertSameRecommendations(List<UserRecommendation> expected, List<UserRecommendation> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getUserName(), actual.get(i).getUserName());
+            assertEquals(expected.get(i).getUserId(), actual.get(i).getUserId());
+            assertEquals(expected.get(i).getRecommendedMovieTitles(), actual.get(i).getRecommendedMovieTitles());
+        }
+    }
+
+    @Test
+    public void testRoundTrip_SameRecommendations() throws IOException {
+        List<UserRecommendation> recommendations = Arrays.asList(
+                new UserRecommendation("John Smith", "123456789",
+                        Arrays.asList("Inception", "The Godfather")),
+                new UserRecommendation("Bob Williams", "123456780", new ArrayList<>()),
+                new UserRecommendation("Am\u00e9lie Poulain", "12345678A",
+                        Arrays.asList("Am\u00e9lie", "Crouching Tiger, Hidden Dragon", "Inception"))
+        );
+        Path file = tempDir.resolve("recommendations.bin");
+
+        writer.writeRecommendations(file.toString(), recommendations);
+
+        assertSameRecommendations(recommendations, readAll(file));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "temporary user file left behind");
+        }
+    }
+
+    @Test
+    public void testTitleTable_EachTitleOnce() throws IOException {
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        for (int u = 0; u < 1000; u++) {
+            recommendations.add(new UserRecommendation("Test User", String.format("%09d", u),
+                    Arrays.asList("The Lord of the Rings: The Return of the King " + (u % 3),
+                            "Star Wars: Episode V - The Empire Strikes Back")));
+        }
+        Path file = tempDir.resolve("recommendations.bin");
+        Path text = tempDir.resolve("recommendations.txt");
+
+        writer.writeRecommendations(file.toString(), recommendations);
+        new RecommendationWriter().writeRecommendations(text.toString(), recommendations);
+
+        try (BinaryRecommendationReader reader = new BinaryRecommendationReader(file)) {
+            assertEquals(1000, reader.userCount());
+            assertEquals(4, reader.titleCount());
+            assertEquals("Star Wars: Episode V - The Empire Strikes Back", reader.titleAt(1));
+        }
+        assertTrue(Files.size(file) * 3 < Files.size(text),
+                Files.size(file) + " bytes binary, " + Files.size(text) + " bytes text");
+        assertSameRecommendations(recommendations, readAll(file));
+    }
+
+    @Test
+    public void testStreamingSink_SameFileAsBatch() throws IOException {
+        List<UserRecommendation> recommendations = Arrays.asList(
+                new UserRecommendation("John Smith", "123456789", Arrays.asList("Inception")),
+                new UserRecommendation("Jane Doe", "987654321", Arrays.asList("The Matrix", "Inception")));
+        Path batch = tempDir.resolve("batch.bin");
+        Path streamed = tempDir.resolve("streamed.bin");
+
+        writer.writeRecommendations(batch.toString(), recommendations);
+        try (RecommendationSink sink = writer.openRecommendations(streamed.toString())) {
+            for (UserRecommendation rec : recommendations) {
+                sink.write(rec);
+            }
+        }
+
+        assertArrayEquals(Files.readAllBytes(batch), Files.readAllBytes(streamed));
+    }
+
+    @Test
+    public void testNoUsers() throws IOException {
+        Path file = tempDir.resolve("recommendations.bin");
+        writer.writeRecommendations(file.toString(), new ArrayList<>());
+
+        try (BinaryRecommendationReader reader = new BinaryRecommendationReader(file)) {
+            assertEquals(0, reader.userCount());
+            assertEquals(0, reader.titleCount());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testLongRecord_MultiByteVarints() throws IOException {
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            titles.add("Movie " + i);
+        }
+        List<UserRecommendation> recommendations = Arrays.asList(
+                new UserRecommendation("x".repeat(200), "123456789", titles));
+        Path file = tempDir.resolve("recommendations.bin");
+
+        writer.writeRecommendations(file.toString(), recommendations);
+
+        assertSameRecommendations(recommendations, readAll(file));
+    }
+
+    @Test
+    public void testTruncatedFile_Throws() throws IOException {
+        Path file = tempDir.resolve("recommendations.bin");
+        writer.writeRecommendations(file.toString(), Arrays.asList(
+                new UserRecommendation("John Smith", "123456789", Arrays.asList("Inception", "The Matrix"))));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        IOException e = assertThrows(IOException.class, () -> readAll(file));
+        assertTrue(e.getMessage().startsWith("Corrupt recommendation file"));
+    }
+
+    // Integer.MAX_VALUE as a varint, standing in for a damaged length or count
+    private static final byte[] HUGE = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+    // A header for one user and one title "A", followed by the given record bytes
+    private Path fileWithRecord(int titleCount, byte[] titleLength, byte[] recordLength, byte[] record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryRecommendationSink.MAGIC);
+        out.writeInt(BinaryRecommendationSink.VERSION);
+        out.writeLong(1);
+        out.writeInt(titleCount);
+        out.write(titleLength);
+        out.write('A');
+        out.write(recordLength);
+        out.write(record);
+        Path file = tempDir.resolve("corrupt.bin");
+        Files.write(file, bytes.toByteArray());
+        return file;
+    }
+
+    private static final byte[] RECORD = {1, 'J', 1, '1', 1, 0};
+
+    private void assertCorrupt(Path file, String reason) {
+        IOException e = assertThrows(IOException.class, () -> readAll(file));
+        assertTrue(e.getMessage().startsWith("Corrupt recommendation file"), e.getMessage());
+        assertTrue(e.getMessage().endsWith(reason), e.getMessage());
+    }
+
+    @Test
+    public void testHandBuiltFile_Reads() throws IOException {
+        List<UserRecommendation> read = readAll(fileWithRecord(1, new byte[] {1}, new byte[] {(byte) RECORD.length}, RECORD));
+
+        assertSameRecommendations(Arrays.asList(new UserRecommendation("J", "1", Arrays.asList("A"))), read);
+    }
+
+    @Test
+    public void testCorruptTitleCount_Throws() throws IOException {
+        assertCorrupt(fileWithRecord(Integer.MAX_VALUE, new byte[] {1}, new byte[] {(byte) RECORD.length}, RECORD),
+                "count larger than the file");
+    }
+
+    @Test
+    public void testCorruptTitleLength_Throws() throws IOException {
+        assertCorrupt(fileWithRecord(1, HUGE, new byte[] {(byte) RECORD.length}, RECORD),
+                "title length larger than the file");
+    }
+
+    @Test
+    public void testCorruptRecordLength_Throws() throws IOException {
+        assertCorrupt(fileWithRecord(1, new byte[] {1}, HUGE, RECORD),
+                "record of user 0 length larger than the file");
+    }
+
+    @Test
+    public void testCorruptRecommendedCount_Throws() throws IOException {
+        byte[] record = {1, 'J', 1, '1', (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0};
+
+        assertCorrupt(fileWithRecord(1, new byte[] {1}, new byte[] {(byte) record.length}, record),
+                "title count out of bounds for user 1");
+    }
+
+    @Test
+    public void testCorruptErrorMessageLength_Throws() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryRecommendationSink.ERROR_MAGIC);
+        out.writeInt(BinaryRecommendationSink.VERSION);
+        out.write(HUGE);
+        Path file = tempDir.resolve("corrupt.bin");
+        Files.write(file, bytes.toByteArray());
+
+        IOException e = assertThrows(IOException.class, () -> new BinaryRecommendationReader(file));
+        assertTrue(e.getMessage().endsWith("error message length larger than the file"), e.getMessage());
+    }
+
+    @Test
+    public void testTextFile_Throws() throws IOException {
+        Path file = tempDir.resolve("recommendations.txt");
+        Files.writeString(file, "John Smith,123456789\nInception\n");
+
+        assertThrows(IOException.class, () -> new BinaryRecommendationReader(file));
+    }
+
+    @Test
+    public void testErrorFile_ReportsMessage() throws IOException {
+        Path file = tempDir.resolve("recommendations.bin");
+        writer.writeRecommendations(file.toString(), Arrays.asList(
+                new UserRecommendation("John Smith", "123456789", Arrays.asList("Inception"))));
+
+        writer.writeError(file.toString(), "ERROR: User Id 12345678\u00e9 is wrong");
+
+        IOException e = assertThrows(IOException.class, () -> new BinaryRecommendationReader(file));
+        assertTrue(e.getMessage().endsWith("holds an error instead of recommendations: ERROR: User Id 12345678\u00e9 is wrong"),
+                e.getMessage());
+    }
+
+    @Test
+    public void testShardedOrCompressed_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RecommendationWriter(2, false, 0, true));
+        assertThrows(IllegalArgumentException.class, () -> new RecommendationWriter(1, false, 2, true));
+    }
+}
@@ -0,0 +1,68 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CandidateCacheTest {
+
+    @Test
+    public void testGet_CountsHitsAndMisses() {
+        CandidateCache<String> cache = new CandidateCache<>(4);
+
+        assertNull(cache.get("action"));
+        cache.put("action", "union", cache.generation());
+        assertEquals("union", cache.get("action"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPut_EvictsLeastRecentlyUsed() {
+        // One entry per segment, so every key competes for the same slot
+        CandidateCache<String> cache = new CandidateCache<>(1);
+
+        cache.put("action", "a", cache.generation());
+        cache.put("drama", "d", cache.generation());
+
+        assertNull(cache.get("action"));
+        assertEquals("d", cache.get("drama"));
+    }
+
+    @Test
+    public void testPut_RecentUseSurvivesEviction() {
+        CandidateCache<String> cache = new CandidateCache<>(2, 1);
+        long generation = cache.generation();
+
+        cache.put("action", "a", generation);
+        cache.put("drama", "d", generation);
+        cache.get("action");
+        cache.put("comedy", "c", generation);
+
+        assertEquals("a", cache.get("action"));
+        assertNull(cache.get("drama"));
+        assertEquals("c", cache.get("comedy"));
+    }
+
+    @Test
+    public void testInvalidateAll_DropsEntriesAndStaleValues() {
+        CandidateCache<String> cache = new CandidateCache<>(8);
+        long before = cache.generation();
+        cache.put("action", "a", before);
+
+        cache.invalidateAll();
+        assertNull(cache.get("action"));
+
+        // Computed before the invalidation, so it must not be stored
+        cache.put("drama", "d", before);
+        assertNull(cache.get("drama"));
+
+        cache.put("drama", "d", cache.generation());
+        assertEquals("d", cache.get("drama"));
+    }
+
+    @Test
+    public void testConstructor_NonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new CandidateCache<String>(0));
+    }
+}
@@ -0,0 +1,142 @@
+package services;
+
+import models.Movie;
+import models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+    private List<Movie> movies;
+    private CompactCatalog catalog;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() {
+        movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("Am\u00e9lie", "A012", Arrays.asList("com\u00e9die", "romance")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama"))
+        );
+
+        catalog = new CompactCatalog(movies);
+    }
+
+    @Test
+    public void testRoundTrip_SameCatalog() throws IOException {
+        Path file = tempDir.resolve("movies.txt.snapshot");
+        CatalogSnapshot.write(catalog, file, 42L);
+
+        CompactCatalog opened = CatalogSnapshot.open(file, 42L);
+        assertNotNull(opened);
+        assertEquals(catalog.movieCount(), opened.movieCount());
+        assertEquals(catalog.genreCount(), opened.genreCount());
+        for (int movie = 0; movie < movies.size(); movie++) {
+            assertEquals(movies.get(movie).getTitle(), opened.titleAt(movie));
+            assertEquals(movie, opened.indexOfMovie(movies.get(movie).getId()));
+        }
+        assertEquals(-1, opened.indexOfMovie("INVALID123"));
+        assertEquals("com\u00e9die", opened.genreName(opened.genreAt(opened.genreStart(3))));
+        assertEquals(catalog.footprintBytes(), opened.footprintBytes());
+    }
+
+    @Test
+    public void testRoundTrip_SameRecommendations() throws IOException {
+        Random random = new Random(17);
+        List<Movie> large = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            List<String> genres = new ArrayList<>();
+            for (int g = 0; g < 1 + random.nextInt(3); g++) {
+                genres.add("genre" + random.nextInt(30));
+            }
+            large.add(new Movie("Movie " + i, "M" + String.format("%04d", i), genres));
+        }
+        Path file = tempDir.resolve("large.snapshot");
+        CompactEngine built = new CompactEngine(new CompactCatalog(large));
+        CatalogSnapshot.write(built.getCatalog(), file, 7L);
+        CompactEngine opened = new CompactEngine(CatalogSnapshot.open(file, 7L));
+
+        for (int u = 0; u < 100; u++) {
+            User user = new User("Test User", String.format("%09d", u), Arrays.asList(
+                    "M" + String.format("%04d", random.nextInt(500)),
+                    "M" + String.format("%04d", random.nextInt(500))));
+            assertEquals(built.generateRecommendations(user).getRecommendedMovieTitles(),
+                    opened.generateRecommendations(user).getRecommendedMovieTitles());
+            assertEquals(built.generateTopK(user, 5).getRecommendedMovieTitles(),
+                    opened.generateTopK(user, 5).getRecommendedMovieTitles());
+        }
+    }
+
+    @Test
+    public void testOpen_StaleOrMissingReturnsNull() throws IOException {
+        Path file = tempDir.resolve("movies.txt.snapshot");
+        assertNull(CatalogSnapshot.open(file, 42L));
+
+        CatalogSnapshot.write(catalog, file, 42L);
+        assertNull(CatalogSnapshot.open(file, 43L));
+    }
+
+    @Test
+    public void testOpen_DamagedSnapshotThrows() throws IOException {
+        Path file = tempDir.resolve("movies.txt.snapshot");
+        CatalogSnapshot.write(catalog, file, 42L);
+
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(raw.length() - 20);
+            int b = raw.read();
+            raw.seek(raw.length() - 20);
+            raw.write(b ^ 0xFF);
+        }
+        IOException e = assertThrows(IOException.class, () -> CatalogSnapshot.open(file, 42L));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    public void testOpen_NotASnapshotThrows() throws IOException {
+        Path file = tempDir.resolve("movies.txt");
+        Files.writeString(file, "The Godfather,TG345\ncrime,drama\nInterstellar,I678\nsci-fi\n");
+
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file, 42L));
+        Files.writeString(file, "short");
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file, 42L));
+    }
+
+    @Test
+    public void testWrite_ReplacesExistingSnapshot() throws IOException {
+        Path file = tempDir.resolve("movies.txt.snapshot");
+        CatalogSnapshot.write(catalog, file, 1L);
+        CatalogSnapshot.write(new CompactCatalog(movies.subList(0, 2)), file, 2L);
+
+        assertNull(CatalogSnapshot.open(file, 1L));
+        assertEquals(2, CatalogSnapshot.open(file, 2L).movieCount());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "No temporary files should be left behind");
+        }
+    }
+
+    @Test
+    public void testStamp_ChangesWithSourceAndSettings() throws IOException {
+        Path source = tempDir.resolve("movies.txt");
+        Files.writeString(source, "The Godfather,TG345\ncrime,drama\n");
+        long stamp = CatalogSnapshot.stampOf(source, "id-digits=3");
+
+        assertEquals(stamp, CatalogSnapshot.stampOf(source, "id-digits=3"));
+        assertNotEquals(stamp, CatalogSnapshot.stampOf(source, "id-digits=4"));
+        Files.writeString(source, "The Godfather,TG345\ncrime,drama,thriller\n");
+        assertNotEquals(stamp, CatalogSnapshot.stampOf(source, "id-digits=3"));
+    }
+}
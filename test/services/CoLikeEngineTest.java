@@ -0,0 +1,147 @@
+package services;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import metrics.Stage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoLikeEngineTest {
+    private List<Movie> movies;
+    private List<User> users;
+    private CoLikeEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("Finding Nemo", "FN012", Arrays.asList("animation", "adventure")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama"))
+        );
+
+        users = Arrays.asList(
+                new User("John Smith", "123456789", Arrays.asList("TDK123", "I456", "TSR789")),
+                new User("Alice Johnson", "987654321", Arrays.asList("TDK123", "I456")),
+                new User("Bob Williams", "123456780", Arrays.asList("TDK123", "TG345", "TDK123")),
+                new User("Mona Adel", "555555555", Arrays.asList("FN012")),
+                new User("Omar Khaled", "444444444", Arrays.asList("TSR789", "INVALID123"))
+        );
+
+        engine = new CoLikeEngine(movies, users, 1);
+    }
+
+    @Test
+    public void testMatrix_CountsUsersWhoLikedBoth() {
+        assertEquals(2, engine.coLikes("TDK123", "I456"));
+        assertEquals(2, engine.coLikes("I456", "TDK123"));
+        assertEquals(1, engine.coLikes("TDK123", "TSR789"));
+        assertEquals(1, engine.coLikes("TDK123", "TG345"));
+        assertEquals(0, engine.coLikes("FN012", "TDK123"));
+        assertEquals(0, engine.coLikes("TDK123", "INVALID123"));
+        // Pairs: TDK-I456, TDK-TSR, I456-TSR, TDK-TG, each stored both ways
+        assertEquals(8, engine.nonZeroCount());
+    }
+
+    @Test
+    public void testRecommendations_RankedBySummedCoLikes() {
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+        UserRecommendation rec = engine.generateRecommendations(user);
+
+        assertEquals("Test User", rec.getUserName());
+        assertEquals("111111111", rec.getUserId());
+        // I456 scores 2; TSR789 and TG345 tie at 1 and keep catalog order
+        assertEquals(Arrays.asList("Inception", "The Shawshank Redemption", "The Godfather"),
+                rec.getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testRecommendations_SumsRowsAndExcludesLiked() {
+        User user = new User("Test User", "111111111", Arrays.asList("I456", "TSR789"));
+
+        // TDK123: 2 (from I456) + 1 (from TSR789)
+        assertEquals(Arrays.asList("The Dark Knight"),
+                engine.generateRecommendations(user).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testMetrics_RecordsEveryRecommendation() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        CoLikeEngine timed = new CoLikeEngine(movies, users, 1, metrics);
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+
+        timed.generateRecommendations(user);
+        timed.generateTopK(user, 1);
+
+        assertEquals(2, metrics.getRecommendations());
+        assertEquals(2, metrics.getStageRecords(Stage.RECOMMEND));
+        assertEquals(3, metrics.getCandidateSetMax());
+    }
+
+    @Test
+    public void testTopK_KeepsBest() {
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+
+        assertEquals(Arrays.asList("Inception", "The Shawshank Redemption"),
+                engine.generateTopK(user, 2).getRecommendedMovieTitles());
+        assertThrows(IllegalArgumentException.class, () -> engine.generateTopK(user, 0));
+    }
+
+    @Test
+    public void testRecommendations_NoCoLikes() {
+        assertTrue(engine.generateRecommendations(new User("Test User", "111111111", Arrays.asList("FN012")))
+                .getRecommendedMovieTitles().isEmpty());
+        assertTrue(engine.generateRecommendations(new User("Test User", "111111111", Arrays.asList("INVALID123")))
+                .getRecommendedMovieTitles().isEmpty());
+    }
+
+    @Test
+    public void testParallelBuild_SameAsSequential() {
+        Random random = new Random(5);
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            catalog.add(new Movie("Movie " + i, "M" + String.format("%03d", i), Arrays.asList("drama")));
+        }
+        List<User> likers = new ArrayList<>();
+        for (int u = 0; u < 500; u++) {
+            List<String> liked = new ArrayList<>();
+            for (int l = 0; l < 1 + random.nextInt(6); l++) {
+                liked.add("M" + String.format("%03d", random.nextInt(200)));
+            }
+            likers.add(new User("Test User", String.format("%09d", u), liked));
+        }
+
+        CoLikeEngine sequential = new CoLikeEngine(catalog, likers, 1);
+        CoLikeEngine parallel = new CoLikeEngine(catalog, likers, 4);
+
+        assertEquals(sequential.nonZeroCount(), parallel.nonZeroCount());
+        List<UserRecommendation> expected = sequential.generateAllTopK(likers, 5, 1);
+        List<UserRecommendation> actual = parallel.generateAllTopK(likers, 5, 4);
+        for (int i = 0; i < likers.size(); i++) {
+            assertEquals(expected.get(i).getRecommendedMovieTitles(), actual.get(i).getRecommendedMovieTitles());
+        }
+    }
+
+    @Test
+    public void testSharedInterface() {
+        Recommender recommender = engine;
+        List<UserRecommendation> all = recommender.generateAll(users, 2);
+
+        assertEquals(users.size(), all.size());
+        assertEquals("John Smith", all.get(0).getUserName());
+        assertEquals(Arrays.asList("The Godfather"), all.get(0).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testConstructor_NonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new CoLikeEngine(movies, users, 0));
+    }
+}
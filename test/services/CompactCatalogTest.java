@@ -0,0 +1,124 @@
+package services;
+
+import models.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactCatalogTest {
+    private List<Movie> movies;
+    private CompactCatalog catalog;
+
+    @BeforeEach
+    public void setUp() {
+        movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("Finding Nemo", "FN012", Arrays.asList("animation", "adventure")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama")),
+                new Movie("Interstellar", "I678", Arrays.asList("sci-fi", "adventure", "drama"))
+        );
+
+        catalog = new CompactCatalog(movies);
+    }
+
+    @Test
+    public void testMovies_NumberedInCatalogOrder() {
+        assertEquals(6, catalog.movieCount());
+        assertEquals(7, catalog.genreCount());
+        assertEquals(0, catalog.indexOfMovie("TDK123"));
+        assertEquals(5, catalog.indexOfMovie("I678"));
+        assertEquals(-1, catalog.indexOfMovie("INVALID123"));
+        assertEquals(-1, catalog.indexOfMovie("I45"));
+        for (int movie = 0; movie < movies.size(); movie++) {
+            assertEquals(movies.get(movie).getTitle(), catalog.titleAt(movie));
+            assertEquals(movies.get(movie).getId(), catalog.movieIdAt(movie));
+            assertEquals(movie, catalog.indexOfMovie(movies.get(movie).getId()));
+        }
+    }
+
+    @Test
+    public void testTitles_RoundTripNonAscii() {
+        CompactCatalog accented = new CompactCatalog(Arrays.asList(
+                new Movie("Am\u00e9lie", "A123", Arrays.asList("comedy")),
+                new Movie("Spirited Away \u5343\u3068\u5343\u5c0b", "SA456", Arrays.asList("animation"))));
+
+        assertEquals("Am\u00e9lie", accented.titleAt(0));
+        assertEquals("Spirited Away \u5343\u3068\u5343\u5c0b", accented.titleAt(1));
+    }
+
+    @Test
+    public void testGenres_SlicesAndPostings() {
+        List<String> interstellar = new ArrayList<>();
+        for (int at = catalog.genreStart(5); at < catalog.genreStart(6); at++) {
+            interstellar.add(catalog.genreName(catalog.genreAt(at)));
+        }
+        assertEquals(Arrays.asList("sci-fi", "adventure", "drama"), interstellar);
+
+        int drama = catalog.genreAt(catalog.genreStart(2));
+        List<Integer> dramaMovies = new ArrayList<>();
+        for (int at = catalog.postingStart(drama); at < catalog.postingStart(drama + 1); at++) {
+            dramaMovies.add(catalog.postingAt(at));
+        }
+        assertEquals(Arrays.asList(2, 4, 5), dramaMovies);
+    }
+
+    @Test
+    public void testGenres_RepeatedGenreStoredOnce() {
+        CompactCatalog repeated = new CompactCatalog(Arrays.asList(
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama", "crime"))));
+
+        assertEquals(2, repeated.genreStart(1) - repeated.genreStart(0));
+        assertEquals(1, repeated.postingStart(1) - repeated.postingStart(0));
+    }
+
+    @Test
+    public void testRepeatedId_KeepsFirstNumberAndLatestMovie() {
+        CompactCatalog duplicated = new CompactCatalog(Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action")),
+                new Movie("Inception", "I456", Arrays.asList("sci-fi")),
+                new Movie("The Dark Knight Rises", "TDK123", Arrays.asList("drama"))));
+
+        assertEquals(2, duplicated.movieCount());
+        assertEquals(0, duplicated.indexOfMovie("TDK123"));
+        assertEquals("The Dark Knight Rises", duplicated.titleAt(0));
+        assertEquals(1, duplicated.genreStart(1) - duplicated.genreStart(0));
+        assertEquals("drama", duplicated.genreName(duplicated.genreAt(duplicated.genreStart(0))));
+        // Still posted under the earlier entry's genre, as in both engines
+        int action = 2;
+        assertEquals("action", duplicated.genreName(action));
+        assertEquals(0, duplicated.postingAt(duplicated.postingStart(action)));
+    }
+
+    @Test
+    public void testIdRank_FollowsStringOrder() {
+        // FN012 < I456 < I678 < TDK123 < TG345 < TSR789
+        assertEquals(3, catalog.idRank(0));
+        assertEquals(1, catalog.idRank(1));
+        assertEquals(5, catalog.idRank(2));
+        assertEquals(0, catalog.idRank(3));
+    }
+
+    @Test
+    public void testEmptyCatalog() {
+        CompactCatalog empty = new CompactCatalog(new ArrayList<>());
+
+        assertEquals(0, empty.movieCount());
+        assertEquals(-1, empty.indexOfMovie("TDK123"));
+    }
+
+    @Test
+    public void testFootprint_CountsEveryArray() {
+        long titles = 0;
+        for (Movie movie : movies) {
+            titles += movie.getTitle().length() + movie.getId().length();
+        }
+
+        assertTrue(catalog.footprintBytes() > titles);
+        assertTrue(catalog.footprintBytes() < 2048);
+    }
+}
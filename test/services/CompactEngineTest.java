@@ -0,0 +1,103 @@
+package services;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactEngineTest {
+    private List<Movie> movies;
+    private CompactEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("Finding Nemo", "FN012", Arrays.asList("animation", "adventure")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama")),
+                new Movie("Interstellar", "I678", Arrays.asList("sci-fi", "adventure", "drama"))
+        );
+
+        engine = new CompactEngine(new CompactCatalog(movies));
+    }
+
+    @Test
+    public void testRecommendations_CatalogOrder() {
+        User user = new User("Test User", "111111111", Arrays.asList("I456"));
+        UserRecommendation rec = engine.generateRecommendations(user);
+
+        assertEquals("Test User", rec.getUserName());
+        assertEquals("111111111", rec.getUserId());
+        assertEquals(Arrays.asList("The Dark Knight", "Interstellar"), rec.getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testRecommendations_UnknownLikedMovies() {
+        User user = new User("Test User", "111111111", Arrays.asList("INVALID123"));
+
+        assertTrue(engine.generateRecommendations(user).getRecommendedMovieTitles().isEmpty());
+        assertTrue(engine.generateTopK(user, 3).getRecommendedMovieTitles().isEmpty());
+    }
+
+    @Test
+    public void testTopK_RankedByGenreMatches() {
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123", "TSR789"));
+
+        // Inception matches action and thriller; Interstellar and The Godfather
+        // match drama once each and tie on ID
+        assertEquals(Arrays.asList("Inception", "Interstellar", "The Godfather"),
+                engine.generateTopK(user, 3).getRecommendedMovieTitles());
+        assertEquals(Arrays.asList("Inception"), engine.generateTopK(user, 1).getRecommendedMovieTitles());
+        assertThrows(IllegalArgumentException.class, () -> engine.generateTopK(user, 0));
+    }
+
+    @Test
+    public void testSameAsIndexedEngine() {
+        Random random = new Random(13);
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            List<String> genres = new ArrayList<>();
+            for (int g = 0; g < 1 + random.nextInt(4); g++) {
+                genres.add("genre" + random.nextInt(25));
+            }
+            catalog.add(new Movie("Movie " + i, "M" + String.format("%03d", random.nextInt(1000)), genres));
+        }
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 300; u++) {
+            List<String> liked = new ArrayList<>();
+            for (int l = 0; l < random.nextInt(6); l++) {
+                liked.add("M" + String.format("%03d", random.nextInt(1000)));
+            }
+            users.add(new User("Test User", String.format("%09d", u), liked));
+        }
+
+        RecommendationEngine indexed = new RecommendationEngine(catalog, true);
+        CompactEngine compact = new CompactEngine(new CompactCatalog(catalog));
+        for (User user : users) {
+            assertEquals(indexed.generateRecommendations(user).getRecommendedMovieTitles(),
+                    compact.generateRecommendations(user).getRecommendedMovieTitles());
+            assertEquals(indexed.generateTopK(user, 7).getRecommendedMovieTitles(),
+                    compact.generateTopK(user, 7).getRecommendedMovieTitles());
+        }
+    }
+
+    @Test
+    public void testSharedInterface() {
+        List<User> users = Arrays.asList(
+                new User("John Smith", "123456789", Arrays.asList("TSR789")),
+                new User("Alice Johnson", "987654321", Arrays.asList("FN012")));
+        Recommender recommender = engine;
+
+        List<UserRecommendation> all = recommender.generateAll(users, 2);
+        assertEquals(Arrays.asList("The Godfather", "Interstellar"), all.get(0).getRecommendedMovieTitles());
+        assertEquals(Arrays.asList("Interstellar"), all.get(1).getRecommendedMovieTitles());
+    }
+}
@@ -0,0 +1,147 @@
+package services;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenreIndexTest {
+    private List<Movie> movies;
+    private GenreIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("Finding Nemo", "FN012", Arrays.asList("animation", "adventure")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama")),
+                new Movie("Interstellar", "I678", Arrays.asList("sci-fi", "adventure", "drama"))
+        );
+
+        index = new GenreIndex(movies);
+    }
+
+    @Test
+    public void testInterning_DenseIndexes() {
+        assertEquals(6, index.movieCount());
+        assertEquals(7, index.genreCount());
+        assertEquals(0, index.indexOfMovie("TDK123"));
+        assertEquals(5, index.indexOfMovie("I678"));
+        assertEquals(-1, index.indexOfMovie("INVALID123"));
+        assertEquals("Inception", index.titleAt(1));
+    }
+
+    @Test
+    public void testPosting_ContainsEveryMovieOfGenre() {
+        BitSet drama = index.postingOf(index.indexOfGenre("drama"));
+
+        assertEquals(3, drama.cardinality());
+        assertTrue(drama.get(index.indexOfMovie("TSR789")));
+        assertTrue(drama.get(index.indexOfMovie("TG345")));
+        assertTrue(drama.get(index.indexOfMovie("I678")));
+    }
+
+    @Test
+    public void testCandidates_ExcludeLikedMovies() {
+        BitSet candidates = index.candidatesFor(Arrays.asList("I456"));
+
+        assertFalse(candidates.get(index.indexOfMovie("I456")));
+        assertTrue(candidates.get(index.indexOfMovie("TDK123")));
+        assertTrue(candidates.get(index.indexOfMovie("I678")));
+        assertEquals(2, candidates.cardinality());
+    }
+
+    @Test
+    public void testCandidates_UnknownMovieIgnored() {
+        BitSet candidates = index.candidatesFor(Arrays.asList("INVALID123"));
+
+        assertTrue(candidates.isEmpty());
+    }
+
+    @Test
+    public void testIndexedEngine_MatchesMapEngine() {
+        RecommendationEngine mapEngine = new RecommendationEngine(movies);
+        RecommendationEngine indexedEngine = new RecommendationEngine(movies, true);
+        assertTrue(indexedEngine.isIndexed());
+
+        List<List<String>> likedLists = Arrays.asList(
+                Arrays.asList("TSR789"),
+                Arrays.asList("TDK123"),
+                Arrays.asList("FN012", "I678"),
+                Arrays.asList("TDK123", "I456", "TSR789", "FN012", "TG345", "I678"),
+                Arrays.asList("INVALID123"),
+                Arrays.asList()
+        );
+
+        for (List<String> liked : likedLists) {
+            User user = new User("Test User", "123456789", liked);
+            UserRecommendation expected = mapEngine.generateRecommendations(user);
+            UserRecommendation actual = indexedEngine.generateRecommendations(user);
+
+            assertEquals(expected.getUserName(), actual.getUserName());
+            assertEquals(expected.getUserId(), actual.getUserId());
+            assertEquals(expected.getRecommendedMovieTitles().size(),
+                    actual.getRecommendedMovieTitles().size());
+            assertEquals(new HashSet<>(expected.getRecommendedMovieTitles()),
+                    new HashSet<>(actual.getRecommendedMovieTitles()));
+        }
+    }
+
+    @Test
+    public void testIndexedEngine_CatalogOrder() {
+        RecommendationEngine engine = new RecommendationEngine(movies, true);
+        User user = new User("Test User", "123456789", Arrays.asList("TSR789"));
+
+        assertEquals(Arrays.asList("The Godfather", "Interstellar"),
+                engine.generateRecommendations(user).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testRemoveMovie_CountsOnlyLiveMovies() {
+        assertTrue(index.removeMovie("TSR789"));
+        assertTrue(index.removeMovie("FN012"));
+        assertFalse(index.removeMovie("FN012"));
+
+        assertEquals(4, index.movieCount());
+        assertEquals(-1, index.indexOfMovie("TSR789"));
+        assertEquals(2, index.postingOf(index.indexOfGenre("drama")).cardinality());
+    }
+
+    @Test
+    public void testRemoveMovie_SlotReused() {
+        int freed = index.indexOfMovie("TSR789");
+        index.removeMovie("TSR789");
+
+        index.putMovie(new Movie("Mad Max", "MM901", Arrays.asList("action")));
+
+        assertEquals(freed, index.indexOfMovie("MM901"));
+        assertEquals("Mad Max", index.titleAt(freed));
+        assertEquals("MM901", index.movieIdAt(freed));
+        assertEquals(6, index.movieCount());
+        assertEquals(6, index.slotCount());
+        assertTrue(index.postingOf(index.indexOfGenre("action")).get(freed));
+        assertFalse(index.postingOf(index.indexOfGenre("drama")).get(freed));
+    }
+
+    @Test
+    public void testRemoveMovie_ChurnDoesNotGrowSlots() {
+        for (int round = 0; round < 1000; round++) {
+            String id = "MM" + String.format("%03d", round % 1000);
+            index.putMovie(new Movie("Mad Max", id, Arrays.asList("action", "drama")));
+            assertTrue(index.removeMovie(id));
+        }
+
+        assertEquals(6, index.movieCount());
+        assertEquals(7, index.slotCount());
+        assertEquals(2, index.postingOf(index.indexOfGenre("action")).cardinality());
+        assertEquals(3, index.postingOf(index.indexOfGenre("drama")).cardinality());
+    }
+}
@@ -0,0 +1,107 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelGzipOutputStreamTest {
+
+    private static byte[] sample(int size) {
+        // Compressible but not trivially so
+        Random random = new Random(42);
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return bytes;
+    }
+
+    private static byte[] compress(byte[] data, int threads, int blockSize, int writeSize) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGzipOutputStream(compressed, threads, blockSize)) {
+            for (int at = 0; at < data.length; at += writeSize) {
+                if (writeSize == 1) {
+                    out.write(data[at]);
+                } else {
+                    out.write(data, at, Math.min(writeSize, data.length - at));
+                }
+            }
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testRoundTrip_ManyBlocks() throws IOException {
+        byte[] data = sample(100_000);
+
+        // Writes that straddle blocks, larger than a block, and single bytes
+        assertArrayEquals(data, gunzip(compress(data, 4, 4096, 1000)));
+        assertArrayEquals(data, gunzip(compress(data, 3, 4096, 10_000)));
+        assertArrayEquals(data, gunzip(compress(data, 2, 997, 1)));
+    }
+
+    @Test
+    public void testRoundTrip_SingleThread() throws IOException {
+        byte[] data = sample(50_000);
+        assertArrayEquals(data, gunzip(compress(data, 1, 1024, 777)));
+    }
+
+    @Test
+    public void testOneMemberPerBlock() throws IOException {
+        byte[] data = sample(10_000);
+        byte[] compressed = compress(data, 2, 2500, 10_000);
+
+        // Each member is exactly what GZIPOutputStream makes of its block
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int at = 0; at < data.length; at += 2500) {
+            ByteArrayOutputStream member = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+                gzip.write(data, at, 2500);
+            }
+            expected.write(member.toByteArray());
+        }
+        assertArrayEquals(expected.toByteArray(), compressed);
+    }
+
+    @Test
+    public void testEmptyStream_StillValidGzip() throws IOException {
+        byte[] compressed = compress(new byte[0], 2, 1024, 1);
+
+        assertTrue(compressed.length > 0);
+        assertEquals(0, gunzip(compressed).length);
+    }
+
+    @Test
+    public void testCloseTwice_WritesOnce() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream out = new ParallelGzipOutputStream(compressed, 2, 1024);
+        out.write(sample(3000));
+        out.close();
+        int size = compressed.size();
+        out.close();
+
+        assertEquals(size, compressed.size());
+        assertArrayEquals(sample(3000), gunzip(compressed.toByteArray()));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelGzipOutputStream(new ByteArrayOutputStream(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelGzipOutputStream(new ByteArrayOutputStream(), 2, 0));
+    }
+}
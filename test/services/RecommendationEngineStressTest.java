@@ -0,0 +1,198 @@
+package services;
+
+import models.Movie;
+import models.User;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Readers recommend continuously while writers add, remove and regenre
+// movies. Every read must succeed with titles that exist at some point, and
+// once writers stop the engine must answer exactly like one built from the
+// final catalog.
+public class RecommendationEngineStressTest {
+    private static final int MOVIES = 300;
+    private static final int GENRES = 12;
+
+    private List<Movie> catalog(Random random, int count) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            movies.add(movie(i, random));
+        }
+        return movies;
+    }
+
+    private Movie movie(int i, Random random) {
+        List<String> genres = new ArrayList<>();
+        int genreCount = 1 + random.nextInt(3);
+        for (int g = 0; g < genreCount; g++) {
+            genres.add("genre" + random.nextInt(GENRES));
+        }
+        return new Movie("Movie " + i, "M" + String.format("%03d", i), genres);
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites_MapEngine() throws Exception {
+        runStress(false);
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites_IndexedEngine() throws Exception {
+        runStress(true);
+    }
+
+    // The index reuses a removed movie's slot for the next new one. A read
+    // that found the slot through a posting from before the removal must not
+    // come back with the newcomer's title, which shares none of its genres.
+    @Test
+    public void testReusedSlot_NeverListedUnderTheOldGenres() throws Exception {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            movies.add(new Movie("Movie " + i, "M" + String.format("%04d", i), Arrays.asList("drama")));
+        }
+        Movie old = new Movie("Old", "OLD1", Arrays.asList("drama"));
+        movies.add(old);
+        RecommendationEngine engine = new RecommendationEngine(movies, true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(pool.submit(() -> {
+                User user = new User("Test User", "123456789", Arrays.asList("M0000"));
+                while (writing.get()) {
+                    List<String> titles = engine.generateRecommendations(user).getRecommendedMovieTitles();
+                    assertFalse(titles.contains("New"), "newcomer listed under drama");
+                }
+                return null;
+            }));
+        }
+
+        Future<?> writer = pool.submit(() -> {
+            for (int op = 0; op < 20000; op++) {
+                // Each add takes the slot the previous remove freed
+                engine.removeMovie("OLD1");
+                engine.addMovie(new Movie("New", "NEW1", Arrays.asList("comedy")));
+                engine.removeMovie("NEW1");
+                engine.addMovie(old);
+            }
+            return null;
+        });
+
+        writer.get(60, TimeUnit.SECONDS);
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private void runStress(boolean indexed) throws Exception {
+        Random setup = new Random(11);
+        List<Movie> initial = catalog(setup, MOVIES / 2);
+        RecommendationEngine engine = new RecommendationEngine(initial, indexed);
+
+        // Titles are never reused for another ID, so any title a reader gets
+        // back must be one of these
+        Set<String> knownTitles = new HashSet<>();
+        for (int i = 0; i < MOVIES; i++) {
+            knownTitles.add("Movie " + i);
+        }
+
+        Map<String, Movie> finalCatalog = new ConcurrentHashMap<>();
+        for (Movie movie : initial) {
+            finalCatalog.put(movie.getId(), movie);
+        }
+
+        int writers = 2;
+        int readers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Each writer owns the IDs with its parity, so the final catalog is
+        // well defined without coordinating writers
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(100 + writer);
+                for (int op = 0; op < 3000; op++) {
+                    int i = writer + writers * random.nextInt(MOVIES / writers);
+                    String id = "M" + String.format("%03d", i);
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            Movie added = movie(i, random);
+                            engine.addMovie(added);
+                            finalCatalog.put(id, added);
+                            break;
+                        case 1:
+                            assertEquals(finalCatalog.remove(id) != null, engine.removeMovie(id));
+                            break;
+                        default:
+                            List<String> genres = Arrays.asList("genre" + random.nextInt(GENRES));
+                            Movie current = finalCatalog.get(id);
+                            assertEquals(current != null, engine.updateGenres(id, genres));
+                            if (current != null) {
+                                finalCatalog.put(id, new Movie(current.getTitle(), id, genres));
+                            }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(200 + reader);
+                while (writing.get()) {
+                    List<String> liked = new ArrayList<>();
+                    for (int l = 0; l < 3; l++) {
+                        liked.add("M" + String.format("%03d", random.nextInt(MOVIES)));
+                    }
+                    User user = new User("Test User", "123456789", liked);
+
+                    List<String> titles = random.nextBoolean()
+                            ? engine.generateRecommendations(user).getRecommendedMovieTitles()
+                            : engine.generateTopK(user, 5).getRecommendedMovieTitles();
+                    assertTrue(knownTitles.containsAll(titles), titles.toString());
+                    reads.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        for (int w = 0; w < writers; w++) {
+            futures.get(w).get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(reads.get() > 0);
+
+        RecommendationEngine fresh = new RecommendationEngine(new ArrayList<>(finalCatalog.values()));
+        for (int i = 0; i < MOVIES; i++) {
+            User user = new User("Test User", "123456789",
+                    Arrays.asList("M" + String.format("%03d", i)));
+            assertEquals(new HashSet<>(fresh.generateRecommendations(user).getRecommendedMovieTitles()),
+                    new HashSet<>(engine.generateRecommendations(user).getRecommendedMovieTitles()),
+                    "liked M" + i);
+        }
+    }
+}
@@ -5,8 +5,13 @@ import models.User;
 import models.UserRecommendation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RecommendationEngineTest {
@@ -119,4 +124,306 @@ public class RecommendationEngineTest {
         assertEquals("Test User", rec.getUserName());
         assertEquals(0, rec.getRecommendedMovieTitles().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTopK_RanksByGenreMatches() {
+        // User likes I456 (action, sci-fi, thriller)
+        // TDK123 matches action and thriller, I678 only sci-fi
+        User user = new User("Test User", "666666666", Arrays.asList("I456"));
+        UserRecommendation rec = engine.generateTopK(user, 2);
+
+        assertEquals(Arrays.asList("The Dark Knight", "Interstellar"),
+                rec.getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testTopK_KeepsOnlyBestK() {
+        User user = new User("Test User", "777777777", Arrays.asList("I456"));
+        UserRecommendation rec = engine.generateTopK(user, 1);
+
+        assertEquals(Arrays.asList("The Dark Knight"), rec.getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testTopK_LikedMatchesBreakGenreTies() {
+        // User likes FN012 (animation, adventure) and TSR789 (drama)
+        // I678 shares one genre with each liked movie, TG345 only with TSR789
+        User user = new User("Test User", "888888888", Arrays.asList("FN012", "TSR789"));
+        UserRecommendation rec = engine.generateTopK(user, 2);
+
+        assertEquals(Arrays.asList("Interstellar", "The Godfather"),
+                rec.getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testTopK_FewerCandidatesThanK() {
+        User user = new User("Test User", "999999999", Arrays.asList("TSR789"));
+        UserRecommendation rec = engine.generateTopK(user, 10);
+
+        assertEquals(2, rec.getRecommendedMovieTitles().size());
+        assertFalse(rec.getRecommendedMovieTitles().contains("The Shawshank Redemption"));
+    }
+
+    @Test
+    public void testTopK_IndexedEngineSameRanking() {
+        RecommendationEngine indexed = new RecommendationEngine(movies, true);
+        User user = new User("Test User", "123123123", Arrays.asList("FN012", "TSR789"));
+
+        assertEquals(engine.generateTopK(user, 3).getRecommendedMovieTitles(),
+                indexed.generateTopK(user, 3).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testTopK_NonPositiveK() {
+        User user = new User("Test User", "321321321", Arrays.asList("TSR789"));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.generateTopK(user, 0));
+    }
+
+    @Test
+    public void testGenerateAll_KeepsInputOrder() {
+        List<User> users = new ArrayList<>();
+        String[] movieIds = {"TDK123", "I456", "TSR789", "FN012", "TG345", "I678"};
+        for (int i = 0; i < 500; i++) {
+            users.add(new User("User", String.format("%09d", i),
+                    Arrays.asList(movieIds[i % movieIds.length])));
+        }
+
+        List<UserRecommendation> sequential = engine.generateAll(users, 1);
+        List<UserRecommendation> parallel = engine.generateAll(users, 4);
+
+        assertEquals(users.size(), parallel.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(users.get(i).getId(), parallel.get(i).getUserId());
+            assertEquals(sequential.get(i).getRecommendedMovieTitles(),
+                    parallel.get(i).getRecommendedMovieTitles());
+        }
+    }
+
+    @Test
+    public void testGenerateAllTopK_MatchesSingleUserCalls() {
+        List<User> users = Arrays.asList(
+                new User("John Smith", "123456789", Arrays.asList("I456")),
+                new User("Alice Johnson", "987654321", Arrays.asList("FN012", "TSR789"))
+        );
+
+        List<UserRecommendation> recs = engine.generateAllTopK(users, 2, 2);
+
+        assertEquals(2, recs.size());
+        assertEquals(engine.generateTopK(users.get(0), 2).getRecommendedMovieTitles(),
+                recs.get(0).getRecommendedMovieTitles());
+        assertEquals(engine.generateTopK(users.get(1), 2).getRecommendedMovieTitles(),
+                recs.get(1).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testGenerateAll_ReusesPoolAcrossCalls() {
+        Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+        Recommender recorder = new Recommender() {
+            @Override
+            public UserRecommendation generateRecommendations(User user) {
+                pools.add(ForkJoinTask.getPool());
+                return engine.generateRecommendations(user);
+            }
+
+            @Override
+            public UserRecommendation generateTopK(User user, int k) {
+                pools.add(ForkJoinTask.getPool());
+                return engine.generateTopK(user, k);
+            }
+        };
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(new User("User", String.format("%09d", i), Arrays.asList("TDK123")));
+        }
+
+        // A streaming run calls this once per batch
+        for (int batch = 0; batch < 5; batch++) {
+            recorder.generateAll(users, 3);
+            recorder.generateAllTopK(users, 2, 3);
+        }
+
+        assertEquals(1, pools.size());
+        assertFalse(pools.iterator().next().isShutdown());
+    }
+
+    @Test
+    public void testGenerateAll_EmptyUserList() {
+        assertEquals(0, engine.generateAll(new ArrayList<>(), 4).size());
+    }
+
+    @Test
+    public void testGenerateAll_NonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.generateAll(new ArrayList<>(), 0));
+    }
+
+    // ==================== Incremental Update Tests ====================
+
+    private List<String> sortedTitles(RecommendationEngine target, String... liked) {
+        List<String> titles = new ArrayList<>(target.generateRecommendations(
+                new User("John Smith", "123456789", Arrays.asList(liked))).getRecommendedMovieTitles());
+        titles.sort(null);
+        return titles;
+    }
+
+    @Test
+    public void testAddMovie_JoinsItsGenres() {
+        for (RecommendationEngine target : Arrays.asList(engine, new RecommendationEngine(movies, true))) {
+            target.addMovie(new Movie("Heat", "H901", Arrays.asList("crime", "thriller")));
+
+            assertEquals(Arrays.asList("Heat", "Inception"), sortedTitles(target, "TDK123"));
+            assertEquals(Arrays.asList("Heat", "Interstellar", "The Shawshank Redemption"), sortedTitles(target, "TG345"));
+        }
+    }
+
+    @Test
+    public void testRemoveMovie_LeavesEveryGenre() {
+        for (RecommendationEngine target : Arrays.asList(engine, new RecommendationEngine(movies, true))) {
+            assertTrue(target.removeMovie("TG345"));
+            assertFalse(target.removeMovie("TG345"));
+
+            assertEquals(Arrays.asList("Interstellar"), sortedTitles(target, "TSR789"));
+            // A removed movie no longer produces recommendations when liked
+            assertTrue(sortedTitles(target, "TG345").isEmpty());
+        }
+    }
+
+    @Test
+    public void testUpdateGenres_MovesMovieBetweenGenres() {
+        for (RecommendationEngine target : Arrays.asList(engine, new RecommendationEngine(movies, true))) {
+            assertTrue(target.updateGenres("FN012", Arrays.asList("drama")));
+            assertFalse(target.updateGenres("INVALID123", Arrays.asList("drama")));
+
+            assertEquals(Arrays.asList("Finding Nemo", "Inception", "The Godfather"), sortedTitles(target, "TSR789", "I678"));
+            assertEquals(Arrays.asList("Interstellar"), sortedTitles(target, "TSR789", "TG345", "FN012"));
+            assertEquals(Arrays.asList("Inception"), sortedTitles(target, "I678", "TSR789", "TG345", "FN012"));
+        }
+    }
+
+    @Test
+    public void testAddMovie_ExistingIdReplacesTitleAndGenres() {
+        engine.addMovie(new Movie("The Godfather Part II", "TG345", Arrays.asList("crime")));
+
+        assertEquals(Arrays.asList("Interstellar"), sortedTitles(engine, "TSR789"));
+        engine.addMovie(new Movie("Scarface", "S111", Arrays.asList("crime")));
+        assertEquals(Arrays.asList("The Godfather Part II"), sortedTitles(engine, "S111"));
+    }
+
+    @Test
+    public void testIncrementalUpdates_MatchFreshEngine() {
+        RecommendationEngine indexed = new RecommendationEngine(movies, true);
+        List<Movie> finalCatalog = new ArrayList<>(movies);
+
+        for (RecommendationEngine target : Arrays.asList(engine, indexed)) {
+            target.removeMovie("TDK123");
+            target.addMovie(new Movie("Heat", "H901", Arrays.asList("crime", "thriller")));
+            target.updateGenres("I456", Arrays.asList("sci-fi"));
+        }
+        finalCatalog.remove(0);
+        finalCatalog.set(0, new Movie("Inception", "I456", Arrays.asList("sci-fi")));
+        finalCatalog.add(new Movie("Heat", "H901", Arrays.asList("crime", "thriller")));
+        RecommendationEngine fresh = new RecommendationEngine(finalCatalog);
+
+        for (Movie liked : finalCatalog) {
+            assertEquals(sortedTitles(fresh, liked.getId()), sortedTitles(engine, liked.getId()));
+            assertEquals(sortedTitles(fresh, liked.getId()), sortedTitles(indexed, liked.getId()));
+        }
+    }
+
+    @Test
+    public void testModes_SameTitlesInCatalogOrder() {
+        RecommendationEngine indexed = new RecommendationEngine(movies, true);
+
+        for (Movie first : movies) {
+            for (Movie second : movies) {
+                User user = new User("John Smith", "123456789", Arrays.asList(first.getId(), second.getId()));
+                assertEquals(engine.generateRecommendations(user).getRecommendedMovieTitles(),
+                        indexed.generateRecommendations(user).getRecommendedMovieTitles());
+            }
+        }
+        assertEquals(Arrays.asList("Inception", "The Shawshank Redemption", "Finding Nemo", "The Godfather"),
+                engine.generateRecommendations(new User("John Smith", "123456789",
+                        Arrays.asList("I678"))).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testModes_ReusedSlotListedLast() {
+        RecommendationEngine indexed = new RecommendationEngine(movies, true);
+        User user = new User("John Smith", "123456789", Arrays.asList("I678"));
+
+        for (RecommendationEngine target : Arrays.asList(engine, indexed)) {
+            target.removeMovie("TSR789");
+            // Takes the freed slot in the index, yet comes after the catalog
+            target.addMovie(new Movie("Heat", "H901", Arrays.asList("drama")));
+
+            assertEquals(Arrays.asList("Inception", "Finding Nemo", "The Godfather", "Heat"),
+                    target.generateRecommendations(user).getRecommendedMovieTitles());
+        }
+    }
+
+    // ==================== Candidate Cache Tests ====================
+
+    @Test
+    public void testCandidateCache_SameOutputAsUncached() {
+        for (boolean indexed : new boolean[]{false, true}) {
+            RecommendationEngine uncached = new RecommendationEngine(movies, indexed);
+            RecommendationEngine cached = new RecommendationEngine(movies, indexed,
+                    metrics.PipelineMetrics.DISABLED, 8);
+
+            List<List<String>> likedLists = Arrays.asList(
+                    Arrays.asList("TDK123"),
+                    Arrays.asList("I456"),
+                    Arrays.asList("TDK123", "TSR789"),
+                    Arrays.asList("TSR789", "TDK123"),
+                    Arrays.asList("TDK123"),
+                    Arrays.asList("INVALID123"),
+                    Arrays.asList("FN012", "I678", "TG345")
+            );
+            for (List<String> liked : likedLists) {
+                User user = new User("John Smith", "123456789", liked);
+                assertEquals(uncached.generateRecommendations(user).getRecommendedMovieTitles(),
+                        cached.generateRecommendations(user).getRecommendedMovieTitles());
+                assertEquals(uncached.generateTopK(user, 2).getRecommendedMovieTitles(),
+                        cached.generateTopK(user, 2).getRecommendedMovieTitles());
+            }
+
+            assertTrue(cached.getCandidateCacheHits() > 0);
+            assertTrue(cached.getCandidateCacheMisses() > 0);
+            assertEquals(0, uncached.getCandidateCacheHits());
+        }
+    }
+
+    @Test
+    public void testCandidateCache_SharedAcrossUsersWithSameGenres() {
+        RecommendationEngine cached = new RecommendationEngine(movies, false,
+                metrics.PipelineMetrics.DISABLED, 8);
+
+        // TDK123 and I456 both cover action and thriller; I456 adds sci-fi
+        cached.generateRecommendations(new User("John Smith", "123456789", Arrays.asList("TDK123")));
+        cached.generateRecommendations(new User("Alice Johnson", "987654321", Arrays.asList("TDK123")));
+
+        assertEquals(1, cached.getCandidateCacheMisses());
+        assertEquals(1, cached.getCandidateCacheHits());
+    }
+
+    @Test
+    public void testCandidateCache_InvalidatedByUpdates() {
+        for (boolean indexed : new boolean[]{false, true}) {
+            RecommendationEngine cached = new RecommendationEngine(movies, indexed,
+                    metrics.PipelineMetrics.DISABLED, 8);
+            User user = new User("John Smith", "123456789", Arrays.asList("TSR789"));
+            cached.generateRecommendations(user);
+
+            cached.addMovie(new Movie("Heat", "H901", Arrays.asList("drama")));
+
+            assertTrue(cached.generateRecommendations(user).getRecommendedMovieTitles().contains("Heat"));
+        }
+    }
+
+    @Test
+    public void testCandidateCache_NegativeSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RecommendationEngine(movies, false, metrics.PipelineMetrics.DISABLED, -1));
+    }
+}
@@ -0,0 +1,193 @@
+package services;
+
+import models.UserRecommendation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecommendationIndexTest {
+    private List<UserRecommendation> recommendations;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() {
+        recommendations = new ArrayList<>();
+        for (int u = 0; u < 300; u++) {
+            List<String> titles = new ArrayList<>();
+            for (int t = 0; t < u % 4; t++) {
+                titles.add("The Godfather Part " + (u + t) % 7);
+            }
+            // Every third ID ends in a letter
+            String id = u % 3 == 0 ? String.format("%08dX", u) : String.format("%09d", u * 7919);
+            recommendations.add(new UserRecommendation("Test User", id, titles));
+        }
+    }
+
+    private Path write(RecommendationWriter writer, String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        writer.writeRecommendations(file.toString(), recommendations);
+        return file;
+    }
+
+    private static RecommendationIndex open(Path file) throws IOException {
+        return RecommendationIndex.open(file, RecommendationIndex.indexFileFor(file.toString()));
+    }
+
+    private void assertEveryUserFound(Path file) throws IOException {
+        RecommendationIndex index = open(file);
+        assertEquals(recommendations.size(), index.size());
+        for (UserRecommendation expected : recommendations) {
+            UserRecommendation found = index.lookup(expected.getUserId());
+            assertNotNull(found, expected.getUserId());
+            assertEquals(expected.getUserName(), found.getUserName());
+            assertEquals(expected.getUserId(), found.getUserId());
+            assertEquals(expected.getRecommendedMovieTitles(), found.getRecommendedMovieTitles());
+        }
+        assertNull(index.lookup("999999999"));
+        assertNull(index.lookup("99999999Z"));
+    }
+
+    @Test
+    public void testTextOutput_EveryUserFound() throws IOException {
+        Path file = write(new RecommendationWriter(1, false, 0, false, true), "recommendations.txt");
+
+        assertEveryUserFound(file);
+    }
+
+    @Test
+    public void testTextOutput_SameBytesAsUnindexed() throws IOException {
+        Path indexed = write(new RecommendationWriter(1, false, 0, false, true), "indexed.txt");
+        Path plain = write(new RecommendationWriter(), "plain.txt");
+
+        assertArrayEquals(Files.readAllBytes(plain), Files.readAllBytes(indexed));
+        assertFalse(Files.exists(RecommendationIndex.indexFileFor(plain.toString())));
+    }
+
+    @Test
+    public void testBinaryOutput_EveryUserFound() throws IOException {
+        Path file = write(new RecommendationWriter(1, false, 0, true, true), "recommendations.bin");
+
+        assertEveryUserFound(file);
+    }
+
+    @Test
+    public void testShardedOutput_EveryUserFound() throws IOException {
+        Path file = write(new RecommendationWriter(4, false, 0, false, true), "recommendations.txt");
+
+        assertEveryUserFound(file);
+    }
+
+    @Test
+    public void testStreamingSink_IndexWrittenOnClose() throws IOException {
+        Path file = tempDir.resolve("recommendations.bin");
+        try (RecommendationSink sink = new RecommendationWriter(1, false, 0, true, true)
+                .openRecommendations(file.toString())) {
+            for (UserRecommendation rec : recommendations) {
+                sink.write(rec);
+            }
+        }
+
+        assertEveryUserFound(file);
+    }
+
+    @Test
+    public void testIdsThatDoNotPack_StillFound() throws IOException {
+        recommendations = Arrays.asList(
+                new UserRecommendation("Test User", "\u0661\u0662\u0663\u0664\u0665\u0666\u0667\u0668\u0669",
+                        Arrays.asList("Inception")),
+                new UserRecommendation("Other User", "12345", Arrays.asList("The Matrix")));
+        assertEveryUserFound(write(new RecommendationWriter(1, false, 0, false, true), "recommendations.txt"));
+        assertEveryUserFound(write(new RecommendationWriter(1, false, 0, true, true), "recommendations.bin"));
+    }
+
+    @Test
+    public void testNoUsers() throws IOException {
+        recommendations = new ArrayList<>();
+        Path file = write(new RecommendationWriter(1, false, 0, false, true), "recommendations.txt");
+
+        RecommendationIndex index = open(file);
+        assertEquals(0, index.size());
+        assertNull(index.lookup("123456789"));
+    }
+
+    @Test
+    public void testDataFileChanged_Throws() throws IOException {
+        Path file = write(new RecommendationWriter(1, false, 0, false, true), "recommendations.txt");
+        Files.writeString(file, "Test User,123456789\nInception\n");
+
+        assertThrows(IOException.class, () -> open(file));
+    }
+
+    @Test
+    public void testWriteError_DeletesOldIndex() throws IOException {
+        RecommendationWriter writer = new RecommendationWriter(1, false, 0, false, true);
+        Path file = write(writer, "recommendations.txt");
+        Path indexFile = RecommendationIndex.indexFileFor(file.toString());
+        assertTrue(Files.exists(indexFile));
+
+        writer.writeError(file.toString(), "ERROR: User Id 123456789 is wrong");
+
+        assertFalse(Files.exists(indexFile));
+        assertEquals("ERROR: User Id 123456789 is wrong", Files.readString(file));
+    }
+
+    @Test
+    public void testNotAnIndex_Throws() throws IOException {
+        Path file = write(new RecommendationWriter(), "recommendations.txt");
+        Files.write(RecommendationIndex.indexFileFor(file.toString()), new byte[64]);
+
+        IOException e = assertThrows(IOException.class, () -> open(file));
+        assertTrue(e.getMessage().startsWith("Corrupt recommendation index"));
+    }
+
+    @Test
+    public void testIndexBytes_TooManyUsersThrows() throws IOException {
+        assertEquals(32 + 1024 * 24, RecommendationIndex.indexBytes(300));
+        // Past the old 2 GB limit of a single mapping
+        assertEquals(32 + (1L << 27) * 24, RecommendationIndex.indexBytes(1 << 25));
+        assertEquals(32 + (1L << 30) * 24, RecommendationIndex.indexBytes((1 << 29) - 1));
+        // 2^31 slots no longer fit the slot count in the header
+        assertThrows(IOException.class, () -> RecommendationIndex.indexBytes(1 << 29));
+        assertThrows(IOException.class, () -> RecommendationIndex.indexBytes(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testFilesLargerThanOneChunk_EveryUserFound() throws IOException {
+        for (boolean binary : new boolean[] {false, true}) {
+            Path file = write(new RecommendationWriter(1, false, 0, binary, true), "recommendations" + binary);
+            Path indexFile = RecommendationIndex.indexFileFor(file.toString());
+            // 40-byte chunks split most records and put every slot in a later chunk
+            assertTrue(Files.size(file) > 40 * 20);
+
+            RecommendationIndex index = RecommendationIndex.open(file, indexFile, 40);
+            for (UserRecommendation expected : recommendations) {
+                UserRecommendation found = index.lookup(expected.getUserId());
+                assertNotNull(found, expected.getUserId());
+                assertEquals(expected.getUserName(), found.getUserName());
+                assertEquals(expected.getRecommendedMovieTitles(), found.getRecommendedMovieTitles());
+            }
+        }
+    }
+
+    @Test
+    public void testChunkSize_MustHoldAlignedFields() {
+        Path file = tempDir.resolve("recommendations.txt");
+
+        assertThrows(IllegalArgumentException.class, () -> RecommendationIndex.open(file, file, 36));
+        assertThrows(IllegalArgumentException.class, () -> RecommendationIndex.open(file, file, 16));
+    }
+
+    @Test
+    public void testCompressedOutput_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RecommendationWriter(1, false, 2, false, true));
+    }
+}
@@ -5,12 +5,20 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RecommendationWriterTest {
@@ -30,6 +38,8 @@ public class RecommendationWriterTest {
         if (file.exists()) {
             file.delete();
         }
+        // Left by the indexed writer, which writes through the channel sink
+        new File(testOutputFile + RecommendationIndex.EXTENSION).delete();
     }
 
     @Test
@@ -176,6 +186,197 @@ public class RecommendationWriterTest {
         assertEquals("Test User,12345678A", lines.get(0));
     }
 
+    @Test
+    public void testOpenRecommendations_WritesIncrementally() throws IOException {
+        try (RecommendationSink sink = writer.openRecommendations(testOutputFile)) {
+            sink.write(new UserRecommendation("John Smith", "123456789",
+                    Arrays.asList("Inception", "The Godfather")));
+            sink.write(new UserRecommendation("Alice Johnson", "987654321",
+                    Arrays.asList("The Dark Knight")));
+        }
+
+        List<String> lines = readFile(testOutputFile);
+        assertEquals(4, lines.size());
+        assertEquals("John Smith,123456789", lines.get(0));
+        assertEquals("Inception,The Godfather", lines.get(1));
+        assertEquals("Alice Johnson,987654321", lines.get(2));
+        assertEquals("The Dark Knight", lines.get(3));
+    }
+
+    // ==================== Channel Output Tests ====================
+
+    @Test
+    public void testChannelOutput_SameBytesAsText() throws IOException {
+        List<UserRecommendation> recommendations = Arrays.asList(
+                new UserRecommendation("John Smith", "123456789",
+                        Arrays.asList("Inception", "The Godfather")),
+                new UserRecommendation("Bob Williams", "123456780", new ArrayList<>()),
+                new UserRecommendation("Am\u00e9lie Poulain", "12345678A",
+                        Arrays.asList("Am\u00e9lie", "Spirited Away \u5343\u3068\u5343\u5c0b", "Inception"))
+        );
+
+        byte[] expected = writeWith(new RecommendationWriter(), recommendations);
+        assertArrayEquals(expected, writeWith(new RecommendationWriter(1, false, 0, false, true), recommendations));
+        assertArrayEquals(expected, writeWith(new RecommendationWriter(1, false, 0, false, false, true), recommendations));
+    }
+
+    @Test
+    public void testTextOutput_Utf8WhateverTheDefaultCharset() throws IOException {
+        List<UserRecommendation> recommendations = Arrays.asList(new UserRecommendation(
+                "Am\u00e9lie Poulain", "123456789", Arrays.asList("Spirited Away \u5343\u3068\u5343\u5c0b")));
+
+        String expected = "Am\u00e9lie Poulain,123456789" + System.lineSeparator()
+                + "Spirited Away \u5343\u3068\u5343\u5c0b" + System.lineSeparator();
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), writeWith(new RecommendationWriter(), recommendations));
+    }
+
+    @Test
+    public void testChannelOutput_PlainTextOnly() {
+        assertThrows(IllegalArgumentException.class, () -> new RecommendationWriter(1, false, 2, false, false, true));
+        assertThrows(IllegalArgumentException.class, () -> new RecommendationWriter(1, false, 0, true, false, true));
+    }
+
+    @Test
+    public void testChannelOutput_SmallBufferSameBytes() throws IOException {
+        StringBuilder longTitle = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longTitle.append("Night ");
+        }
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        for (int u = 0; u < 200; u++) {
+            recommendations.add(new UserRecommendation("Test User", String.format("%09d", u),
+                    Arrays.asList("Inception", longTitle.toString(), "The Dark Knight " + (u % 7))));
+        }
+
+        byte[] expected = writeWith(new RecommendationWriter(), recommendations);
+        // A 64-byte buffer flushes mid-line and cannot hold the long title
+        try (RecommendationSink sink = new ChannelRecommendationSink(
+                FileChannel.open(Paths.get(testOutputFile), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 64)) {
+            for (UserRecommendation rec : recommendations) {
+                sink.write(rec);
+            }
+        }
+        assertArrayEquals(expected, Files.readAllBytes(Paths.get(testOutputFile)));
+    }
+
+    @Test
+    public void testChannelOutput_Utf8() throws IOException {
+        try (RecommendationSink sink = new ChannelRecommendationSink(
+                FileChannel.open(Paths.get(testOutputFile), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 16)) {
+            sink.write(new UserRecommendation("Am\u00e9lie Poulain", "123456789",
+                    Arrays.asList("Am\u00e9lie", "Inception")));
+        }
+
+        String expected = "Am\u00e9lie Poulain,123456789" + System.lineSeparator()
+                + "Am\u00e9lie,Inception" + System.lineSeparator();
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                Files.readAllBytes(Paths.get(testOutputFile)));
+    }
+
+    @Test
+    public void testChannelOutput_TruncatesExistingFile() throws IOException {
+        Files.writeString(Paths.get(testOutputFile), "x".repeat(1000));
+
+        new RecommendationWriter(1, false, 0, false, true).writeRecommendations(testOutputFile, Arrays.asList(
+                new UserRecommendation("Test User", "111111111", Arrays.asList("Inception"))));
+
+        List<String> lines = readFile(testOutputFile);
+        assertEquals(Arrays.asList("Test User,111111111", "Inception"), lines);
+    }
+
+    // ==================== Sharded Output Tests ====================
+
+    @Test
+    public void testShardedOutput_SameBytesAsSingleWriter() throws IOException {
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        for (int u = 0; u < 103; u++) {
+            recommendations.add(new UserRecommendation("Test User " + u, String.format("%09d", u),
+                    u % 5 == 0 ? new ArrayList<>() : Arrays.asList("Inception", "The Godfather " + (u % 3))));
+        }
+
+        byte[] expected = writeWith(new RecommendationWriter(), recommendations);
+        assertArrayEquals(expected, writeWith(new RecommendationWriter(4, false), recommendations));
+        assertArrayEquals(expected, writeWith(new RecommendationWriter(4, false, 0, false, true), recommendations));
+        for (int shard = 0; shard < 4; shard++) {
+            assertFalse(Files.exists(RecommendationWriter.partFile(testOutputFile, shard)));
+        }
+    }
+
+    @Test
+    public void testShardedOutput_MoreShardsThanUsers() throws IOException {
+        List<UserRecommendation> recommendations = Arrays.asList(
+                new UserRecommendation("John Smith", "123456789", Arrays.asList("Inception")),
+                new UserRecommendation("Jane Doe", "987654321", Arrays.asList("The Matrix")));
+
+        new RecommendationWriter(8, false).writeRecommendations(testOutputFile, recommendations);
+
+        assertEquals(Arrays.asList("John Smith,123456789", "Inception", "Jane Doe,987654321", "The Matrix"),
+                readFile(testOutputFile));
+    }
+
+    @Test
+    public void testShardedOutput_KeepParts() throws IOException {
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        for (int u = 0; u < 10; u++) {
+            recommendations.add(new UserRecommendation("Test User", String.format("%09d", u),
+                    Arrays.asList("Inception")));
+        }
+
+        try {
+            new RecommendationWriter(3, true).writeRecommendations(testOutputFile, recommendations);
+
+            List<String> joined = new ArrayList<>();
+            for (int shard = 0; shard < 3; shard++) {
+                List<String> part = readFile(RecommendationWriter.partFile(testOutputFile, shard).toString());
+                // Slices of 4, 4 and 2 users
+                assertEquals(shard < 2 ? 8 : 4, part.size());
+                joined.addAll(part);
+            }
+            assertEquals(readFile(testOutputFile), joined);
+        } finally {
+            for (int shard = 0; shard < 3; shard++) {
+                Files.deleteIfExists(RecommendationWriter.partFile(testOutputFile, shard));
+            }
+        }
+    }
+
+    // ==================== Gzip Output Tests ====================
+
+    @Test
+    public void testGzipOutput_DecompressesToPlainOutput() throws IOException {
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        for (int u = 0; u < 500; u++) {
+            recommendations.add(new UserRecommendation("Test User " + u, String.format("%09d", u),
+                    Arrays.asList("Inception", "The Godfather " + (u % 3))));
+        }
+
+        byte[] expected = writeWith(new RecommendationWriter(), recommendations);
+        assertArrayEquals(expected, gunzip(writeWith(new RecommendationWriter(1, false, 2), recommendations)));
+        // Each gzip part holds its own members; joined, they read as one stream
+        assertArrayEquals(expected, gunzip(writeWith(new RecommendationWriter(3, false, 2), recommendations)));
+    }
+
+    @Test
+    public void testGzipOutput_ErrorIsCompressed() throws IOException {
+        new RecommendationWriter(1, false, 2).writeError(testOutputFile, "Some error");
+
+        assertEquals("Some error", new String(gunzip(Files.readAllBytes(Paths.get(testOutputFile)))));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private byte[] writeWith(RecommendationWriter recommendationWriter,
+                             List<UserRecommendation> recommendations) throws IOException {
+        recommendationWriter.writeRecommendations(testOutputFile, recommendations);
+        return Files.readAllBytes(Paths.get(testOutputFile));
+    }
+
     // Helper method to read file
     private List<String> readFile(String filename) throws IOException {
         List<String> lines = new ArrayList<>();
@@ -0,0 +1,266 @@
+package services;
+
+import models.Movie;
+import models.User;
+import models.UserRecommendation;
+import metrics.PipelineMetrics;
+import metrics.Stage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimilarUserEngineTest {
+    private List<Movie> movies;
+    private List<User> users;
+    private SimilarUserEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        movies = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action", "thriller")),
+                new Movie("Inception", "I456", Arrays.asList("action", "sci-fi", "thriller")),
+                new Movie("The Shawshank Redemption", "TSR789", Arrays.asList("drama")),
+                new Movie("Finding Nemo", "FN012", Arrays.asList("animation", "adventure")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime", "drama"))
+        );
+
+        users = Arrays.asList(
+                new User("John Smith", "123456789", Arrays.asList("TDK123", "I456", "TSR789")),
+                new User("Alice Johnson", "987654321", Arrays.asList("TDK123", "I456")),
+                new User("Bob Williams", "123456780", Arrays.asList("TDK123", "TG345", "TDK123")),
+                new User("Mona Adel", "555555555", Arrays.asList("FN012")),
+                new User("Omar Khaled", "444444444", Arrays.asList("INVALID123"))
+        );
+
+        // One row per band: any shared movie is almost surely a shared bucket
+        engine = new SimilarUserEngine(movies, users, 64, 1, 10, 1);
+    }
+
+    @Test
+    public void testJaccard() {
+        assertEquals(1.0, SimilarUserEngine.jaccard(new int[]{1, 2}, new int[]{1, 2}), 1e-9);
+        assertEquals(0.5, SimilarUserEngine.jaccard(new int[]{1, 2}, new int[]{2}), 1e-9);
+        assertEquals(0.0, SimilarUserEngine.jaccard(new int[]{1}, new int[]{2}), 1e-9);
+    }
+
+    @Test
+    public void testCandidateProbability() {
+        assertEquals(1.0, SimilarUserEngine.candidateProbability(1.0, 16, 4), 1e-9);
+        assertEquals(0.0, SimilarUserEngine.candidateProbability(0.0, 16, 4), 1e-9);
+        assertEquals(1 - Math.pow(1 - 0.0625, 16), SimilarUserEngine.candidateProbability(0.5, 16, 4), 1e-9);
+        // More bands find more, more rows find fewer
+        assertTrue(SimilarUserEngine.candidateProbability(0.5, 32, 4)
+                > SimilarUserEngine.candidateProbability(0.5, 16, 4));
+        assertTrue(SimilarUserEngine.candidateProbability(0.5, 16, 8)
+                < SimilarUserEngine.candidateProbability(0.5, 16, 4));
+    }
+
+    @Test
+    public void testIndex_DropsUsersWithoutKnownMovies() {
+        assertEquals(4, engine.userCount());
+        assertEquals(64, engine.getBands());
+        assertEquals(1, engine.getRows());
+    }
+
+    @Test
+    public void testRecommendations_RankedByNeighborSimilarity() {
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+        UserRecommendation rec = engine.generateRecommendations(user);
+
+        assertEquals("Test User", rec.getUserName());
+        assertEquals("111111111", rec.getUserId());
+        // Alice 1/2 + John 1/3 liked Inception, Bob 1/2 The Godfather, John
+        // alone The Shawshank Redemption
+        assertEquals(Arrays.asList("Inception", "The Godfather", "The Shawshank Redemption"),
+                rec.getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testMetrics_RecordsEveryRecommendation() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        SimilarUserEngine timed = new SimilarUserEngine(movies, users, 64, 1, 10, 1, metrics);
+
+        timed.generateRecommendations(new User("Test User", "111111111", Arrays.asList("TDK123")));
+        timed.generateTopK(new User("Test User", "111111111", Arrays.asList("TDK123")), 1);
+        timed.generateRecommendations(new User("Test User", "111111111", Arrays.asList("INVALID123")));
+
+        assertEquals(3, metrics.getRecommendations());
+        assertEquals(3, metrics.getStageRecords(Stage.RECOMMEND));
+        assertEquals(3, metrics.getCandidateSetMax());
+    }
+
+    @Test
+    public void testRecommendations_ExcludesLiked() {
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123", "I456", "TSR789", "TG345"));
+
+        assertTrue(engine.generateRecommendations(user).getRecommendedMovieTitles().isEmpty());
+    }
+
+    @Test
+    public void testRecommendations_NoNeighbors() {
+        assertTrue(engine.generateRecommendations(new User("Test User", "111111111", Arrays.asList("FN012")))
+                .getRecommendedMovieTitles().isEmpty());
+        assertTrue(engine.generateRecommendations(new User("Test User", "111111111", Arrays.asList("INVALID123")))
+                .getRecommendedMovieTitles().isEmpty());
+    }
+
+    @Test
+    public void testRecall_FewerCandidatesWithLongerBands() {
+        // One band of 32 rows only pairs near-identical users; no user here is
+        // more than half similar to the query
+        SimilarUserEngine strict = new SimilarUserEngine(movies, users, 1, 32, 10, 1);
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+
+        assertTrue(strict.generateRecommendations(user).getRecommendedMovieTitles().isEmpty());
+        assertEquals(3, engine.generateRecommendations(user).getRecommendedMovieTitles().size());
+    }
+
+    @Test
+    public void testNeighbors_LimitsContributors() {
+        SimilarUserEngine nearest = new SimilarUserEngine(movies, users, 64, 1, 1, 1);
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123", "I456"));
+
+        // Only the nearest neighbor, Alice (1.0), contributes and she adds
+        // nothing new; with more, John and Bob bring theirs
+        assertTrue(nearest.generateRecommendations(user).getRecommendedMovieTitles().isEmpty());
+        assertEquals(Arrays.asList("The Shawshank Redemption", "The Godfather"),
+                engine.generateRecommendations(user).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testTopK_KeepsBest() {
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+
+        assertEquals(Arrays.asList("Inception"), engine.generateTopK(user, 1).getRecommendedMovieTitles());
+        assertThrows(IllegalArgumentException.class, () -> engine.generateTopK(user, 0));
+    }
+
+    @Test
+    public void testRecall_MatchesExactNeighbors() {
+        Random random = new Random(9);
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            catalog.add(new Movie("Movie " + i, "M" + String.format("%03d", i), Arrays.asList("drama")));
+        }
+        // Clusters of users drawn from small shared pools are very similar
+        List<User> likers = new ArrayList<>();
+        for (int u = 0; u < 600; u++) {
+            int pool = (u % 30) * 10;
+            List<String> liked = new ArrayList<>();
+            for (int l = 0; l < 8; l++) {
+                liked.add("M" + String.format("%03d", pool + random.nextInt(10)));
+            }
+            likers.add(new User("Test User", String.format("%09d", u), liked));
+        }
+
+        SimilarUserEngine lsh = new SimilarUserEngine(catalog, likers, 32, 2, 5, 1);
+        int sameCluster = 0;
+        int recommended = 0;
+        for (User user : likers.subList(0, 60)) {
+            int pool = (Integer.parseInt(user.getId()) % 30) * 10;
+            for (String title : lsh.generateTopK(user, 3).getRecommendedMovieTitles()) {
+                int movie = Integer.parseInt(title.substring("Movie ".length()));
+                recommended++;
+                if (movie >= pool && movie < pool + 10) {
+                    sameCluster++;
+                }
+            }
+        }
+        assertTrue(recommended > 0);
+        assertEquals(recommended, sameCluster);
+    }
+
+    @Test
+    public void testCandidates_CappedWhenEveryoneSharesABucket() {
+        List<Movie> catalog = Arrays.asList(
+                new Movie("The Dark Knight", "TDK123", Arrays.asList("action")),
+                new Movie("Inception", "I456", Arrays.asList("action")),
+                new Movie("The Godfather", "TG345", Arrays.asList("crime")));
+        // Identical liked sets land in the same bucket in every band
+        List<User> crowd = new ArrayList<>();
+        for (int u = 0; u < 5000; u++) {
+            List<String> liked = u % 2 == 0
+                    ? Arrays.asList("TDK123", "I456")
+                    : Arrays.asList("TDK123", "I456", "TG345");
+            crowd.add(new User("Test User", String.format("%09d", u), liked));
+        }
+
+        SimilarUserEngine crowded = new SimilarUserEngine(catalog, crowd, 4, 1, 5, 1);
+        int cap = 4 * 5 * SimilarUserEngine.CANDIDATES_PER_NEIGHBOR;
+        for (User user : crowd.subList(0, 50)) {
+            int candidates = crowded.candidatesOf(user).length;
+            assertTrue(candidates > 0);
+            assertTrue(candidates <= cap, "scored " + candidates + " users");
+        }
+
+        User user = new User("Test User", "111111111", Arrays.asList("TDK123"));
+        assertEquals(Arrays.asList("Inception"), crowded.generateRecommendations(user).getRecommendedMovieTitles());
+    }
+
+    @Test
+    public void testNeighbors_NeverSelf() {
+        // Alice's closest match is herself; with one neighbor, John must be it
+        SimilarUserEngine nearest = new SimilarUserEngine(movies, users, 64, 1, 1, 1);
+        assertEquals(Arrays.asList("The Shawshank Redemption"),
+                nearest.generateRecommendations(users.get(1)).getRecommendedMovieTitles());
+
+        Random random = new Random(3);
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            catalog.add(new Movie("Movie " + i, "M" + String.format("%03d", i), Arrays.asList("drama")));
+        }
+        List<User> likers = new ArrayList<>();
+        for (int u = 0; u < 300; u++) {
+            List<String> liked = new ArrayList<>();
+            for (int l = 0; l < 1 + random.nextInt(4); l++) {
+                liked.add("M" + String.format("%03d", random.nextInt(50)));
+            }
+            likers.add(new User("Test User", String.format("%09d", u), liked));
+        }
+        SimilarUserEngine lsh = new SimilarUserEngine(catalog, likers, 16, 1, 10, 1);
+        for (int u = 0; u < likers.size(); u++) {
+            for (int candidate : lsh.candidatesOf(likers.get(u))) {
+                assertNotEquals(u, candidate);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBuild_SameAsSequential() {
+        Random random = new Random(5);
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            catalog.add(new Movie("Movie " + i, "M" + String.format("%03d", i), Arrays.asList("drama")));
+        }
+        List<User> likers = new ArrayList<>();
+        for (int u = 0; u < 500; u++) {
+            List<String> liked = new ArrayList<>();
+            for (int l = 0; l < 1 + random.nextInt(6); l++) {
+                liked.add("M" + String.format("%03d", random.nextInt(200)));
+            }
+            likers.add(new User("Test User", String.format("%09d", u), liked));
+        }
+
+        SimilarUserEngine sequential = new SimilarUserEngine(catalog, likers, 1);
+        SimilarUserEngine parallel = new SimilarUserEngine(catalog, likers, 4);
+
+        assertEquals(sequential.userCount(), parallel.userCount());
+        List<UserRecommendation> expected = sequential.generateAllTopK(likers, 5, 1);
+        List<UserRecommendation> actual = parallel.generateAllTopK(likers, 5, 4);
+        for (int i = 0; i < likers.size(); i++) {
+            assertEquals(expected.get(i).getRecommendedMovieTitles(), actual.get(i).getRecommendedMovieTitles());
+        }
+    }
+
+    @Test
+    public void testConstructor_NonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new SimilarUserEngine(movies, users, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SimilarUserEngine(movies, users, 0, 4, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SimilarUserEngine(movies, users, 16, 0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SimilarUserEngine(movies, users, 16, 4, 0, 1));
+    }
+}
@@ -0,0 +1,126 @@
+package tools;
+
+import models.Movie;
+import models.User;
+import parsers.MovieParser;
+import parsers.UserParser;
+import validators.MovieValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetGeneratorTest {
+    private String moviesFile = "test_generated_movies.txt";
+    private String usersFile = "test_generated_users.txt";
+
+    @AfterEach
+    public void tearDown() {
+        new File(moviesFile).delete();
+        new File(usersFile).delete();
+    }
+
+    private GeneratorOptions options(String... args) {
+        String[] all = new String[args.length + 4];
+        System.arraycopy(args, 0, all, 0, args.length);
+        all[args.length] = "--movies-out";
+        all[args.length + 1] = moviesFile;
+        all[args.length + 2] = "--users-out";
+        all[args.length + 3] = usersFile;
+        return GeneratorOptions.parse(all);
+    }
+
+    @Test
+    public void testGenerate_ParsersAcceptOutput() throws Exception {
+        GeneratorOptions options = options("--movies", "500", "--users", "300",
+                "--genres", "30", "--genres-per-movie", "4", "--max-liked", "8");
+        new DatasetGenerator(options).generate();
+
+        List<Movie> movies = new MovieParser().parseMovies(moviesFile);
+        List<User> users = new UserParser().parseUsers(usersFile);
+
+        assertEquals(500, movies.size());
+        assertEquals(300, users.size());
+
+        Set<String> movieIds = new HashSet<>();
+        for (Movie movie : movies) {
+            movieIds.add(movie.getId());
+            assertTrue(movie.getGenres().size() >= 1 && movie.getGenres().size() <= 4);
+            assertEquals(movie.getGenres().size(), new HashSet<>(movie.getGenres()).size());
+        }
+        for (User user : users) {
+            assertTrue(user.getLikedMovieIds().size() >= 1 && user.getLikedMovieIds().size() <= 8);
+            assertEquals(user.getLikedMovieIds().size(), new HashSet<>(user.getLikedMovieIds()).size());
+            assertTrue(movieIds.containsAll(user.getLikedMovieIds()));
+        }
+    }
+
+    @Test
+    public void testGenerate_WidensIdsForLargeCatalog() throws Exception {
+        GeneratorOptions options = options("--movies", "2500", "--users", "10");
+        assertEquals(4, options.getMovieIdDigits());
+        new DatasetGenerator(options).generate();
+
+        List<Movie> movies = new MovieParser(new MovieValidator(4, false)).parseMovies(moviesFile);
+
+        assertEquals(2500, movies.size());
+    }
+
+    @Test
+    public void testGenerate_SameSeedSameOutput() throws Exception {
+        assertEquals(render(options("--seed", "7")), render(options("--seed", "7")));
+        assertNotEquals(render(options("--seed", "7")), render(options("--seed", "8")));
+    }
+
+    @Test
+    public void testGenerate_UserCountDoesNotChangeMovies() throws Exception {
+        StringWriter few = new StringWriter();
+        StringWriter many = new StringWriter();
+        new DatasetGenerator(options("--users", "5")).writeMovies(few);
+        new DatasetGenerator(options("--users", "5000")).writeMovies(many);
+
+        assertEquals(few.toString(), many.toString());
+    }
+
+    @Test
+    public void testGenerate_SkewedGenresFavourFirstRank() throws Exception {
+        GeneratorOptions options = options("--movies", "1000", "--genres", "20",
+                "--genres-per-movie", "1", "--genre-skew", "1.5");
+        StringWriter movies = new StringWriter();
+        new DatasetGenerator(options).writeMovies(movies);
+
+        String[] lines = movies.toString().split("\\R");
+        int first = 0;
+        int last = 0;
+        for (int i = 1; i < lines.length; i += 2) {
+            if (lines[i].equals("action")) first++;
+            if (lines[i].equals("biography")) last++;
+        }
+
+        assertTrue(first > 10 * last, first + " vs " + last);
+    }
+
+    @Test
+    public void testOptions_RejectsCatalogTooLargeForDigits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GeneratorOptions.parse(new String[]{"--movies", "1001", "--id-digits", "3"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeneratorOptions.parse(new String[]{"--movies", "0"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeneratorOptions.parse(new String[]{"--genre-skew", "-1"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeneratorOptions.parse(new String[]{"--seed"}));
+    }
+
+    private String render(GeneratorOptions options) throws Exception {
+        DatasetGenerator generator = new DatasetGenerator(options);
+        StringWriter out = new StringWriter();
+        generator.writeMovies(out);
+        generator.writeUsers(out);
+        return out.toString();
+    }
+}
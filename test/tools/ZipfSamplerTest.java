@@ -0,0 +1,57 @@
+package tools;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipfSamplerTest {
+
+    private int[] histogram(ZipfSampler sampler, int draws) {
+        Random random = new Random(1);
+        int[] counts = new int[sampler.size()];
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void testSample_StaysInRange() {
+        int[] counts = histogram(new ZipfSampler(5, 2.0), 10_000);
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        assertEquals(10_000, total);
+    }
+
+    @Test
+    public void testSample_ZeroSkewIsUniform() {
+        int[] counts = histogram(new ZipfSampler(10, 0), 100_000);
+
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10_000) < 500, "count " + count);
+        }
+    }
+
+    @Test
+    public void testSample_SkewOneFollowsHarmonicWeights() {
+        int[] counts = histogram(new ZipfSampler(10, 1.0), 100_000);
+
+        // Rank 0 is twice as likely as rank 1 and ten times as likely as rank 9
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.1);
+        assertEquals(10.0, (double) counts[0] / counts[9], 1.0);
+    }
+
+    @Test
+    public void testSample_SingleRank() {
+        assertEquals(0, new ZipfSampler(1, 1.0).sample(new Random()));
+    }
+
+    @Test
+    public void testConstructor_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, -0.5));
+    }
+}
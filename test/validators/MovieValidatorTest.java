@@ -5,6 +5,7 @@ import exceptions.MovieIdLettersException;
 import exceptions.MovieIdNumbersException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MovieValidatorTest {
@@ -135,4 +136,138 @@ public class MovieValidatorTest {
         assertDoesNotThrow(() ->
                 validator.validateMovieId("Finding Nemo", "FN012"));
     }
-}
\ No newline at end of file
+
+    // ==================== Single-Pass Validation Tests ====================
+
+    @Test
+    public void testValidateMovie_ValidMovie() {
+        assertDoesNotThrow(() -> validator.validateMovie("The Dark Knight", "TDK123"));
+        assertDoesNotThrow(() -> validator.validateMovie("Inception", new StringBuilder("I456")));
+    }
+
+    @Test
+    public void testValidateMovie_SameExceptionsAsSeparateChecks() {
+        String[][] cases = {
+                {null, "TDK123"},
+                {"", "TDK123"},
+                {"   ", "TDK123"},
+                {" The Dark Knight", "TDK123"},
+                {"The dark Knight", "TK123"},
+                {"The  Dark\tKnight ", "TDK124"},
+                {"The Dark Knight", "ABC123"},
+                {"The Dark Knight", "TDKX123"},
+                {"The Dark Knight", "TD"},
+                {"The Dark Knight", "TDK12"},
+                {"The Dark Knight", "TDK1234"},
+                {"The Dark Knight", "TDK12A"},
+                {"The Dark Knight", "TDK\u0661\u0662\u0663"},
+                {"The Dark Knight", "TDK125"},
+                {"Up", "U125"}
+        };
+
+        MovieValidator separate = new MovieValidator();
+        for (String[] movie : cases) {
+            Class<?> expected = outcome(() -> {
+                separate.validateTitle(movie[0]);
+                separate.validateMovieId(movie[0], movie[1]);
+            });
+            Class<?> actual = outcome(() -> validator.validateMovie(movie[0], movie[1]));
+
+            assertEquals(expected, actual, "Outcome differs for " + movie[0] + "," + movie[1]);
+        }
+    }
+
+    @Test
+    public void testValidateMovie_SharesUniquenessWithValidateMovieId() throws Exception {
+        validator.validateMovieId("The Dark Knight", "TDK123");
+
+        assertThrows(MovieIdNumbersException.class,
+                () -> validator.validateMovie("Inception", "I123"));
+
+        validator.validateMovie("Inception", "I456");
+        assertThrows(MovieIdNumbersException.class,
+                () -> validator.validateMovieId("Interstellar", "I456"));
+    }
+
+    @Test
+    public void testValidateMovie_RejectedIdDoesNotClaimSuffix() throws Exception {
+        assertThrows(MovieIdLettersException.class,
+                () -> validator.validateMovie("The Dark Knight", "ABC123"));
+
+        assertDoesNotThrow(() -> validator.validateMovie("The Dark Knight", "TDK123"));
+    }
+
+    // ==================== Wide ID Tests ====================
+
+    @Test
+    public void testWideIds_AcceptConfiguredDigitCount() {
+        MovieValidator wide = new MovieValidator(7, false);
+
+        assertDoesNotThrow(() -> wide.validateMovieId("The Dark Knight", "TDK1234567"));
+        assertDoesNotThrow(() -> wide.validateMovie("Inception", "I0000042"));
+        assertThrows(MovieIdNumbersException.class,
+                () -> wide.validateMovieId("The Dark Knight", "TDK123"));
+        assertThrows(MovieIdNumbersException.class,
+                () -> wide.validateMovie("Inception", "I12345678"));
+    }
+
+    @Test
+    public void testWideIds_MillionsOfUniqueSuffixes() throws Exception {
+        MovieValidator wide = new MovieValidator(7, false);
+
+        for (int i = 0; i < 2_000_000; i++) {
+            wide.validateMovie("Inception", "I" + String.format("%07d", i));
+        }
+        assertThrows(MovieIdNumbersException.class,
+                () -> wide.validateMovie("Interstellar", "I0000000"));
+    }
+
+    @Test
+    public void testUniqueFullId_SameDigitsDifferentLetters() {
+        MovieValidator fullId = new MovieValidator(3, true);
+
+        assertDoesNotThrow(() -> fullId.validateMovieId("The Dark Knight", "TDK123"));
+        assertDoesNotThrow(() -> fullId.validateMovie("Inception", "I123"));
+        assertThrows(MovieIdNumbersException.class,
+                () -> fullId.validateMovie("Interstellar", "I123"));
+        assertThrows(MovieIdNumbersException.class,
+                () -> fullId.validateMovieId("The Dark Kingdom", "TDK123"));
+    }
+
+    @Test
+    public void testUniqueFullId_ReusedCharSequenceKeepsPrefixes() {
+        MovieValidator fullId = new MovieValidator(3, true);
+        StringBuilder title = new StringBuilder();
+        StringBuilder id = new StringBuilder();
+
+        // The builders are overwritten after each call, as a parser reusing
+        // one buffer would; the stored prefixes must not change with them
+        assertDoesNotThrow(() -> fullId.validateMovie(title.append("The Dark Knight"), id.append("TDK123")));
+        title.setLength(0);
+        id.setLength(0);
+        assertDoesNotThrow(() -> fullId.validateMovie(title.append("Inception"), id.append("I123")));
+        title.setLength(0);
+        id.setLength(0);
+
+        assertThrows(MovieIdNumbersException.class,
+                () -> fullId.validateMovie(title.append("The Dark Kingdom"), id.append("TDK123")));
+        assertThrows(MovieIdNumbersException.class,
+                () -> fullId.validateMovie("Interstellar", "I123"));
+        assertDoesNotThrow(() -> fullId.validateMovie("The Dark Kingdom", "TDK456"));
+    }
+
+    @Test
+    public void testWideIds_DigitCountOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new MovieValidator(0, false));
+        assertThrows(IllegalArgumentException.class, () -> new MovieValidator(10, false));
+    }
+
+    private Class<?> outcome(Executable check) {
+        try {
+            check.execute();
+            return null;
+        } catch (Throwable t) {
+            return t.getClass();
+        }
+    }
+}
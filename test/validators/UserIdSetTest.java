@@ -0,0 +1,94 @@
+package validators;
+
+import exceptions.UserIdException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserIdSetTest {
+    private UserIdSet userIds;
+
+    @BeforeEach
+    public void setUp() {
+        userIds = new UserIdSet();
+    }
+
+    @Test
+    public void testAdd_DigitOnlyId() {
+        assertTrue(userIds.add("123456789"));
+        assertFalse(userIds.add("123456789"));
+        assertTrue(userIds.contains("123456789"));
+        assertEquals(1, userIds.size());
+    }
+
+    @Test
+    public void testAdd_IdEndingWithLetter() {
+        assertTrue(userIds.add("12345678A"));
+
+        assertTrue(userIds.contains("12345678A"));
+        assertFalse(userIds.contains("12345678B"));
+        assertFalse(userIds.contains("123456780"));
+    }
+
+    @Test
+    public void testAdd_AllZeroId() {
+        assertFalse(userIds.contains("000000000"));
+        assertTrue(userIds.add("000000000"));
+        assertTrue(userIds.contains("000000000"));
+    }
+
+    @Test
+    public void testAdd_UnpackableIdsFallBack() {
+        assertTrue(userIds.add("U1"));
+        assertTrue(userIds.add("\u0661\u0662\u0663\u0664\u0665\u0666\u0667\u0668\u0669"));
+        assertFalse(userIds.add("U1"));
+
+        assertTrue(userIds.contains("U1"));
+        assertFalse(userIds.contains("U2"));
+        assertEquals(2, userIds.size());
+    }
+
+    @Test
+    public void testAdd_ManyIdsSurviveResize() {
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(userIds.add(String.format("%09d", i * 7)));
+        }
+
+        assertEquals(100000, userIds.size());
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(userIds.contains(String.format("%09d", i * 7)));
+            assertFalse(userIds.contains(String.format("%09d", i * 7 + 1)));
+        }
+    }
+
+    @Test
+    public void testIterator_ReturnsOriginalIds() {
+        Set<String> expected = new HashSet<>();
+        expected.add("123456789");
+        expected.add("000000042");
+        expected.add("12345678Z");
+        expected.add("U1");
+        userIds.addAll(expected);
+
+        assertEquals(expected, new HashSet<>(userIds));
+    }
+
+    @Test
+    public void testContains_NonStringIsAbsent() {
+        userIds.add("123456789");
+
+        assertFalse(userIds.contains(123456789));
+    }
+
+    @Test
+    public void testValidateUniqueUserId_WorksWithPackedSet() throws Exception {
+        UserValidator validator = new UserValidator();
+        userIds.add("123456789");
+
+        assertThrows(UserIdException.class,
+                () -> validator.validateUniqueUserId("123456789", userIds));
+        assertDoesNotThrow(() -> validator.validateUniqueUserId("987654321", userIds));
+    }
+}
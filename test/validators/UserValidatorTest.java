@@ -2,8 +2,11 @@ package validators;
 
 import exceptions.UserNameException;
 import exceptions.UserIdException;
+import exceptions.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
@@ -177,4 +180,19 @@ public class UserValidatorTest {
         assertThrows(UserIdException.class,
                 () -> validator.validateUniqueUserId("12345678A", existingIds));
     }
+
+    @Test
+    public void testLikedMovieIds_Valid() {
+        assertDoesNotThrow(() ->
+                validator.validateLikedMovieIds(Arrays.asList("TDK123", "I456", "UNKNOWN999")));
+        assertDoesNotThrow(() -> validator.validateLikedMovieIds(Collections.emptyList()));
+    }
+
+    @Test
+    public void testLikedMovieIds_Malformed() {
+        for (String movieId : Arrays.asList("", "TDK", "123", "TDK12A", "TD K123", "TDK+123")) {
+            assertThrows(ValidationException.class,
+                    () -> validator.validateLikedMovieIds(Arrays.asList("I456", movieId)), movieId);
+        }
+    }
 }
\ No newline at end of file